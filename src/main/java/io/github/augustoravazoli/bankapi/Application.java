@@ -4,16 +4,24 @@ import static java.lang.annotation.ElementType.CONSTRUCTOR;
 import java.lang.annotation.Retention;
 import static java.lang.annotation.RetentionPolicy.CLASS;
 import java.lang.annotation.Target;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+@EnableScheduling
 @ConfigurationPropertiesScan
-@SpringBootApplication
+// the reactive transaction pipeline builds its own TransactionalOperator
+@SpringBootApplication(exclude = R2dbcTransactionManagerAutoConfiguration.class)
 public class Application {
 
   public static void main(String[] args) {
@@ -21,8 +29,15 @@ public class Application {
   }
 
   @Bean
-  public WebClient webClient() {
-    return WebClient.builder().build();
+  public WebClient webClient(ObjectProvider<WebClient.Builder> builder) {
+    // the auto-configured builder records http.client.requests for every call
+    return builder.getIfAvailable(WebClient::builder).build();
+  }
+
+  @ConditionalOnProperty(name = "bankapi.virtual-threads.enabled", havingValue = "false", matchIfMissing = true)
+  @Bean
+  public Scheduler blockingScheduler() {
+    return Schedulers.boundedElastic();
   }
 
   @Target(CONSTRUCTOR)
@@ -0,0 +1,29 @@
+package io.github.augustoravazoli.bankapi;
+
+import java.math.BigDecimal;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.constraints.DecimalMax;
+
+// registered through META-INF/services, so @DecimalMax keeps working on Money fields
+public class DecimalMaxMoneyValidator implements ConstraintValidator<DecimalMax, Money> {
+
+  private BigDecimal max;
+  private boolean inclusive;
+
+  @Override
+  public void initialize(DecimalMax constraint) {
+    max = new BigDecimal(constraint.value());
+    inclusive = constraint.inclusive();
+  }
+
+  @Override
+  public boolean isValid(Money value, ConstraintValidatorContext context) {
+    if (value == null) {
+      return true;
+    }
+    var comparison = value.toBigDecimal().compareTo(max);
+    return inclusive ? comparison <= 0 : comparison < 0;
+  }
+
+}
@@ -3,6 +3,7 @@ package io.github.augustoravazoli.bankapi;
 import java.util.List;
 import static java.util.stream.Collectors.toList;
 import org.hibernate.validator.internal.engine.path.PathImpl;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -10,6 +11,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.server.ResponseStatusException;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.ConstraintViolationException;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.Path;
 
 @ControllerAdvice
@@ -27,6 +29,13 @@ class GlobalExceptionHandler {
   @JsonInclude(JsonInclude.Include.NON_NULL)
   private static record ErrorDetails(String field, String message) {}
 
+  private final MeterRegistry registry;
+
+  @Autowired
+  public GlobalExceptionHandler(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<ErrorResponse> handle(MethodArgumentNotValidException ex) {
     var errorInfo = new ErrorResponse("validation errors on your request", ex
@@ -62,6 +71,11 @@ class GlobalExceptionHandler {
 
   @ExceptionHandler(ResponseStatusException.class)
   public ResponseEntity<ErrorResponse> handle(ResponseStatusException ex) {
+    registry.counter(
+      "bankapi.errors",
+      "exception", ex.getClass().getSimpleName(),
+      "status", String.valueOf(ex.getStatusCode().value())
+    ).increment();
     return ResponseEntity
       .status(ex.getStatusCode())
       .body(new ErrorResponse(ex.getReason()));
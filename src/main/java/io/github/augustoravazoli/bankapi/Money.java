@@ -0,0 +1,68 @@
+package io.github.augustoravazoli.bankapi;
+
+import java.math.BigDecimal;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * An amount of money as a whole number of minor units, cents of a real.
+ * Arithmetic is exact and fails on overflow instead of wrapping around.
+ * Stored as a BIGINT through {@link MoneyConverter}, written to JSON as a
+ * decimal number.
+ */
+public record Money(long minorUnits) implements Comparable<Money> {
+
+  public static final Money ZERO = new Money(0);
+
+  private static final int SCALE = 2;
+
+  public static Money ofMinorUnits(long minorUnits) {
+    return new Money(minorUnits);
+  }
+
+  // an amount finer than a minor unit is rejected rather than rounded away
+  @JsonCreator
+  public static Money of(BigDecimal amount) {
+    return new Money(amount.setScale(SCALE).unscaledValue().longValueExact());
+  }
+
+  public static Money of(String amount) {
+    return of(new BigDecimal(amount));
+  }
+
+  public Money plus(Money other) {
+    return new Money(Math.addExact(minorUnits, other.minorUnits));
+  }
+
+  public Money minus(Money other) {
+    return new Money(Math.subtractExact(minorUnits, other.minorUnits));
+  }
+
+  public Money negate() {
+    return new Money(Math.negateExact(minorUnits));
+  }
+
+  public boolean isPositive() {
+    return minorUnits > 0;
+  }
+
+  public boolean isLessThan(Money other) {
+    return minorUnits < other.minorUnits;
+  }
+
+  @Override
+  public int compareTo(Money other) {
+    return Long.compare(minorUnits, other.minorUnits);
+  }
+
+  @JsonValue
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(minorUnits, SCALE);
+  }
+
+  @Override
+  public String toString() {
+    return toBigDecimal().toPlainString();
+  }
+
+}
@@ -0,0 +1,19 @@
+package io.github.augustoravazoli.bankapi;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+  @Override
+  public Long convertToDatabaseColumn(Money money) {
+    return money == null ? null : money.minorUnits();
+  }
+
+  @Override
+  public Money convertToEntityAttribute(Long minorUnits) {
+    return minorUnits == null ? null : Money.ofMinorUnits(minorUnits);
+  }
+
+}
@@ -0,0 +1,81 @@
+package io.github.augustoravazoli.bankapi;
+
+import java.util.List;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.Configuration;
+import static org.springframework.context.annotation.FilterType.ASSIGNABLE_TYPE;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+
+@EnableJpaRepositories(
+  basePackageClasses = Application.class,
+  excludeFilters = @Filter(type = ASSIGNABLE_TYPE, classes = R2dbcRepository.class)
+)
+@EnableR2dbcRepositories(
+  basePackageClasses = Application.class,
+  includeFilters = @Filter(type = ASSIGNABLE_TYPE, classes = R2dbcRepository.class)
+)
+@Configuration(proxyBeanMethods = false)
+class PersistenceConfiguration {
+
+  @WritingConverter
+  private static enum MoneyWritingConverter implements Converter<Money, Long> {
+
+    INSTANCE;
+
+    @Override
+    public Long convert(Money money) {
+      return money.minorUnits();
+    }
+
+  }
+
+  @ReadingConverter
+  private static enum MoneyReadingConverter implements Converter<Long, Money> {
+
+    INSTANCE;
+
+    @Override
+    public Money convert(Long minorUnits) {
+      return Money.ofMinorUnits(minorUnits);
+    }
+
+  }
+
+  // with R2DBC on the classpath the DataSource isn't auto-configured anymore
+  @Bean
+  @ConfigurationProperties("spring.datasource")
+  public DataSourceProperties dataSourceProperties() {
+    return new DataSourceProperties();
+  }
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+    return dataSourceProperties
+      .initializeDataSourceBuilder()
+      .type(HikariDataSource.class)
+      .build();
+  }
+
+  // the R2DBC side maps the same BIGINT columns the JPA MoneyConverter does
+  @Bean
+  public R2dbcCustomConversions r2dbcCustomConversions(ConnectionFactory connectionFactory) {
+    return R2dbcCustomConversions.of(
+      DialectResolver.getDialect(connectionFactory),
+      List.of(MoneyWritingConverter.INSTANCE, MoneyReadingConverter.INSTANCE)
+    );
+  }
+
+}
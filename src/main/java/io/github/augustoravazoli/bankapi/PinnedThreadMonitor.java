@@ -0,0 +1,70 @@
+package io.github.augustoravazoli.bankapi;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import static java.util.stream.Collectors.joining;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+class PinnedThreadMonitor implements InitializingBean, DisposableBean, MeterBinder {
+
+  private static final Logger logger = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+  private final Duration threshold;
+  private final LongAdder pinnedCount = new LongAdder();
+  private RecordingStream stream;
+
+  public PinnedThreadMonitor(Duration threshold) {
+    this.threshold = threshold;
+  }
+
+  public long getPinnedCount() {
+    return pinnedCount.sum();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("bankapi.virtual-threads.pinned", this, PinnedThreadMonitor::getPinnedCount)
+      .description("Virtual threads that pinned their carrier longer than the threshold")
+      .register(registry);
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    stream = new RecordingStream();
+    stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    stream.onEvent(PINNED_EVENT, this::report);
+    stream.startAsync();
+  }
+
+  @Override
+  public void destroy() {
+    stream.close();
+  }
+
+  private void report(RecordedEvent event) {
+    pinnedCount.increment();
+    var stackTrace = event.getStackTrace() == null ? "" : event.getStackTrace()
+      .getFrames()
+      .stream()
+      .map(frame -> "\tat " + frame.getMethod().getType().getName()
+        + "." + frame.getMethod().getName()
+        + ":" + frame.getLineNumber())
+      .collect(joining("\n"));
+    logger.warn(
+      "Virtual thread {} pinned its carrier for {} ms\n{}",
+      event.getThread() == null ? "?" : event.getThread().getJavaName(),
+      event.getDuration().toMillis(),
+      stackTrace
+    );
+  }
+
+}
@@ -0,0 +1,15 @@
+package io.github.augustoravazoli.bankapi;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.constraints.Positive;
+
+// registered through META-INF/services, so @Positive and @PositiveOrZero keep working on Money fields
+public class PositiveMoneyValidator implements ConstraintValidator<Positive, Money> {
+
+  @Override
+  public boolean isValid(Money value, ConstraintValidatorContext context) {
+    return value == null || value.isPositive();
+  }
+
+}
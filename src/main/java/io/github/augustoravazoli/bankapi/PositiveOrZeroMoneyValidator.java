@@ -0,0 +1,14 @@
+package io.github.augustoravazoli.bankapi;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.constraints.PositiveOrZero;
+
+public class PositiveOrZeroMoneyValidator implements ConstraintValidator<PositiveOrZero, Money> {
+
+  @Override
+  public boolean isValid(Money value, ConstraintValidatorContext context) {
+    return value == null || !value.isLessThan(Money.ZERO);
+  }
+
+}
@@ -0,0 +1,98 @@
+package io.github.augustoravazoli.bankapi;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+@Component
+public class RetryExecutor implements MeterBinder {
+
+  private final int maxAttempts;
+  private final long initialBackoff;
+  private final long maxBackoff;
+  private final LongAdder attempts = new LongAdder();
+  private final LongAdder conflicts = new LongAdder();
+  private final LongAdder exhausted = new LongAdder();
+
+  @Autowired
+  public RetryExecutor(
+    @Value("${bankapi.retry.max-attempts}") int maxAttempts,
+    @Value("${bankapi.retry.initial-backoff}") Duration initialBackoff,
+    @Value("${bankapi.retry.max-backoff}") Duration maxBackoff
+  ) {
+    this.maxAttempts = Math.max(maxAttempts, 1);
+    this.initialBackoff = initialBackoff.toNanos();
+    this.maxBackoff = maxBackoff.toNanos();
+  }
+
+  public <T> T execute(Supplier<T> operation) {
+    for (int attempt = 1; ; attempt++) {
+      attempts.increment();
+      try {
+        return operation.get();
+      } catch (ConcurrencyFailureException ex) {
+        conflicts.increment();
+        if (attempt >= maxAttempts) {
+          exhausted.increment();
+          throw ex;
+        }
+        backoff(attempt, ex);
+      }
+    }
+  }
+
+  public long getAttempts() {
+    return attempts.sum();
+  }
+
+  public long getConflicts() {
+    return conflicts.sum();
+  }
+
+  public long getExhausted() {
+    return exhausted.sum();
+  }
+
+  public double getConflictRate() {
+    var total = attempts.sum();
+    return total == 0 ? 0 : (double) conflicts.sum() / total;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("bankapi.retry.attempts", this, RetryExecutor::getAttempts)
+      .description("Attempts of retried operations, first tries included")
+      .register(registry);
+    FunctionCounter.builder("bankapi.retry.conflicts", this, RetryExecutor::getConflicts)
+      .description("Attempts that failed on a concurrent update")
+      .register(registry);
+    FunctionCounter.builder("bankapi.retry.exhausted", this, RetryExecutor::getExhausted)
+      .description("Operations that gave up after the last attempt")
+      .register(registry);
+    Gauge.builder("bankapi.retry.conflict.rate", this, RetryExecutor::getConflictRate)
+      .description("Share of attempts that failed on a concurrent update, since startup")
+      .register(registry);
+  }
+
+  private void backoff(int attempt, ConcurrencyFailureException conflict) {
+    // full jitter, so writers that collided once don't collide again on the next attempt
+    var ceiling = Math.min(maxBackoff, initialBackoff << Math.min(attempt - 1, 30));
+    var delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+    try {
+      Thread.sleep(delay / 1_000_000, (int) (delay % 1_000_000));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw conflict;
+    }
+  }
+
+}
@@ -0,0 +1,61 @@
+package io.github.augustoravazoli.bankapi;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates 63 bit ids made of a millisecond timestamp, a node id and a
+ * per-millisecond sequence, so ids are unique across nodes and sort in
+ * creation order without asking the database.
+ */
+public final class SnowflakeIdGenerator {
+
+  static final Instant EPOCH = Instant.parse("2023-01-01T00:00:00Z");
+  static final int NODE_BITS = 10;
+  static final int SEQUENCE_BITS = 12;
+  static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+  private static final Map<Integer, SnowflakeIdGenerator> sharedGenerators = new ConcurrentHashMap<>();
+
+  private final long nodeId;
+  private final Clock clock;
+  // timestamp and sequence packed together, so a single CAS moves both
+  private final AtomicLong lastState = new AtomicLong();
+
+  public SnowflakeIdGenerator(int nodeId, Clock clock) {
+    if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+      throw new IllegalArgumentException("node id must be between 0 and " + MAX_NODE_ID);
+    }
+    this.nodeId = nodeId;
+    this.clock = clock;
+  }
+
+  public static SnowflakeIdGenerator shared(int nodeId) {
+    return sharedGenerators.computeIfAbsent(
+      nodeId,
+      id -> new SnowflakeIdGenerator(id, Clock.systemUTC())
+    );
+  }
+
+  public long nextId() {
+    while (true) {
+      var last = lastState.get();
+      var now = (clock.millis() - EPOCH.toEpochMilli()) << SEQUENCE_BITS;
+      // never go back in time, a clock step back or an exhausted sequence borrows the next millisecond
+      var next = Math.max(now, last + 1);
+      if (lastState.compareAndSet(last, next)) {
+        var timestamp = next >>> SEQUENCE_BITS;
+        var sequence = next & ((1 << SEQUENCE_BITS) - 1);
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+      }
+    }
+  }
+
+  public static Instant timestampOf(long id) {
+    return EPOCH.plusMillis(id >>> (NODE_BITS + SEQUENCE_BITS));
+  }
+
+}
@@ -0,0 +1,32 @@
+package io.github.augustoravazoli.bankapi;
+
+import java.lang.reflect.Member;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+public class SnowflakeIdentifierGenerator implements IdentifierGenerator {
+
+  static final String NODE_ID_SETTING = "bankapi.ids.node-id";
+
+  private final SnowflakeIdGenerator generator;
+
+  public SnowflakeIdentifierGenerator(
+    SnowflakeId config,
+    Member idMember,
+    CustomIdGeneratorCreationContext creationContext
+  ) {
+    var settings = creationContext.getServiceRegistry()
+      .getService(ConfigurationService.class)
+      .getSettings();
+    var nodeId = settings.getOrDefault(NODE_ID_SETTING, "0").toString();
+    generator = SnowflakeIdGenerator.shared(Integer.parseInt(nodeId));
+  }
+
+  @Override
+  public Object generate(SharedSessionContractImplementor session, Object object) {
+    return generator.nextId();
+  }
+
+}
@@ -0,0 +1,53 @@
+package io.github.augustoravazoli.bankapi;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import static org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@ConditionalOnProperty(name = "bankapi.virtual-threads.enabled", havingValue = "true")
+@Configuration(proxyBeanMethods = false)
+class VirtualThreadsConfiguration {
+
+  @Bean(APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+  public AsyncTaskExecutor applicationTaskExecutor() {
+    return new TaskExecutorAdapter(newVirtualThreadPerTaskExecutor());
+  }
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer(
+    AsyncTaskExecutor applicationTaskExecutor
+  ) {
+    return protocolHandler -> protocolHandler.setExecutor(applicationTaskExecutor);
+  }
+
+  @Bean
+  public Scheduler blockingScheduler(AsyncTaskExecutor applicationTaskExecutor) {
+    return Schedulers.fromExecutor(applicationTaskExecutor);
+  }
+
+  @Bean
+  public PinnedThreadMonitor pinnedThreadMonitor(VirtualThreadsProperties properties) {
+    return new PinnedThreadMonitor(properties.pinnedThreshold());
+  }
+
+  // looked up reflectively so the project still builds and runs on Java 17
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      var factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) factory.invoke(null);
+    } catch (ReflectiveOperationException ex) {
+      throw new IllegalStateException(
+        "bankapi.virtual-threads.enabled requires a Java runtime with virtual threads", ex
+      );
+    }
+  }
+
+}
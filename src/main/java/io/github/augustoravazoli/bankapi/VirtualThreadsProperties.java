@@ -0,0 +1,7 @@
+package io.github.augustoravazoli.bankapi;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bankapi.virtual-threads")
+record VirtualThreadsProperties(boolean enabled, Duration pinnedThreshold) {}
@@ -1,25 +1,26 @@
 package io.github.augustoravazoli.bankapi.account;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Formula;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import static jakarta.persistence.FetchType.LAZY;
-import jakarta.persistence.GeneratedValue;
-import static jakarta.persistence.GenerationType.IDENTITY;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
-import jakarta.validation.constraints.Positive;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.PositiveOrZero;
 import io.github.augustoravazoli.bankapi.Application.Default;
+import io.github.augustoravazoli.bankapi.Money;
+import io.github.augustoravazoli.bankapi.SnowflakeId;
 import io.github.augustoravazoli.bankapi.customer.Customer;
 
 @Entity
 public class Account {
 
   @Id
-  @GeneratedValue(strategy = IDENTITY)
+  @SnowflakeId
   private Long id;
 
   @Column(nullable = false)
@@ -27,11 +28,17 @@ public class Account {
 
   @PositiveOrZero
   @Column(nullable = false)
-  private BigDecimal balance;
+  private Money balance;
+
+  @Formula("(SELECT COALESCE(SUM(p.amount), 0) FROM ledger_pending p WHERE p.account_id = id)")
+  private Money pendingBalance;
 
   @Column(nullable = false)
   private LocalDate createdAt;
 
+  @Version
+  private long version;
+
   @ManyToOne(fetch = LAZY, optional = false)
   @JoinColumn(name = "account_id", nullable = false)
   private Customer owner;
@@ -40,7 +47,7 @@ public class Account {
 
   public Account(String bankName, Customer owner) {
     bank = bankName;
-    balance = BigDecimal.ZERO;
+    balance = Money.ZERO;
     createdAt = LocalDate.now();
     setOwner(owner);
   }
@@ -63,8 +70,8 @@ public class Account {
     this.bank = bank;
   }
 
-  public BigDecimal getBalance() {
-    return balance;
+  public Money getBalance() {
+    return pendingBalance == null ? balance : balance.plus(pendingBalance);
   }
 
   public LocalDate getCreatedAt() {
@@ -76,7 +83,8 @@ public class Account {
   }
 
   protected void setOwner(Customer owner) {
-    if (owner != null) {
+    // a reference that was never loaded has no accounts in memory to keep in sync, loading it would cost a query
+    if (owner != null && Hibernate.isInitialized(owner)) {
       owner.addAccount(this);
     } else if (this.owner != null) {
       this.owner.removeAccount(this);
@@ -84,25 +92,4 @@ public class Account {
     this.owner = owner;
   }
 
-  public void deposit(@Positive BigDecimal amount) {
-    balance = balance.add(amount);
-  }
-
-  public void withdraw(@Positive BigDecimal amount) {
-    if (amount.compareTo(balance) <= 0) {
-      balance = balance.subtract(amount);
-    } else {
-      throw new InsufficientBalanceException();
-    }
-  }
-
-  public void transfer(@Positive BigDecimal amount, Account destination) {
-    if (this.id != destination.id) {
-      this.withdraw(amount);
-      destination.deposit(amount);
-    } else {
-      throw new SelfTransferException();
-    }
-  }
-
 }
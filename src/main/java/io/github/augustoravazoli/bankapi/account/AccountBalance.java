@@ -0,0 +1,8 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+import io.github.augustoravazoli.bankapi.Money;
+
+@Table("account")
+public record AccountBalance(@Id Long id, Money balance) {}
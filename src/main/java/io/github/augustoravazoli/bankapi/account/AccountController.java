@@ -1,8 +1,10 @@
 package io.github.augustoravazoli.bankapi.account;
 
-import java.util.stream.Stream;
+import java.time.LocalDate;
 import org.hibernate.validator.constraints.br.CPF;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -13,8 +15,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.PastOrPresent;
+import reactor.core.publisher.Mono;
 
 @Validated
 @RequestMapping("/api/v1/customers/{cpf}/accounts")
@@ -31,21 +36,20 @@ class AccountController {
   }
 
   @PostMapping
-  public ResponseEntity<AccountResponse> createAccount(
+  public Mono<ResponseEntity<AccountResponse>> createAccount(
     @CPF @PathVariable("cpf") String ownerCpf,
     @Valid @RequestBody AccountRequest newAccount
   ) {
-    var createdAccount = Stream.of(newAccount)
-      .map(account -> accountService.createAccount(ownerCpf, account))
-      .map(accountMapper::toResponse)
-      .findFirst()
-      .get();
-    var location = ServletUriComponentsBuilder
+    var locationBuilder = ServletUriComponentsBuilder
       .fromCurrentRequest()
-      .path("/{id}")
-      .buildAndExpand(createdAccount.id())
-      .toUri();
-    return ResponseEntity.created(location).body(createdAccount);
+      .path("/{id}");
+    return accountService
+      .createAccount(ownerCpf, newAccount)
+      .map(accountMapper::toResponse)
+      .map(createdAccount -> {
+        var location = locationBuilder.buildAndExpand(createdAccount.id()).toUri();
+        return ResponseEntity.created(location).body(createdAccount);
+      });
   }
 
   @GetMapping("/{id}")
@@ -53,24 +57,30 @@ class AccountController {
     @CPF @PathVariable("cpf") String ownerCpf,
     @PathVariable("id") long accountId
   ) {
-    var findedAccount = Stream.of(accountService.findAccount(ownerCpf, accountId))
-      .map(accountMapper::toResponse)
-      .findFirst()
-      .get();
+    var findedAccount = accountService.findAccount(ownerCpf, accountId);
     return ResponseEntity.ok().body(findedAccount);
   }
 
+  @GetMapping("/{id}/balance")
+  public ResponseEntity<BalanceResponse> findBalance(
+    @CPF @PathVariable("cpf") String ownerCpf,
+    @PathVariable("id") long accountId,
+    @PastOrPresent @DateTimeFormat(iso = DATE) @RequestParam("at") LocalDate date
+  ) {
+    var balance = accountService.findBalance(ownerCpf, accountId, date);
+    return ResponseEntity.ok().body(new BalanceResponse(accountId, date, balance));
+  }
+
   @PutMapping("/{id}")
-  public ResponseEntity<AccountResponse> editAccount(
+  public Mono<ResponseEntity<AccountResponse>> editAccount(
     @CPF @PathVariable("cpf") String ownerCpf,
     @PathVariable("id") long accountId,
     @Valid @RequestBody AccountRequest newAccount
   ) {
-    var editedAccount = Stream.of(accountService.editAccount(ownerCpf, accountId, newAccount))
+    return accountService
+      .editAccount(ownerCpf, accountId, newAccount)
       .map(accountMapper::toResponse)
-      .findFirst()
-      .get();
-    return ResponseEntity.ok().body(editedAccount);
+      .map(editedAccount -> ResponseEntity.ok().body(editedAccount));
   }
 
   @DeleteMapping("/{id}")
@@ -0,0 +1,119 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+@Component
+public class AccountLockManager implements MeterBinder {
+
+  public static final class AccountLocks implements AutoCloseable {
+
+    private final ReentrantLock[] locks;
+
+    private AccountLocks(ReentrantLock... locks) {
+      this.locks = locks;
+    }
+
+    @Override
+    public void close() {
+      for (int i = locks.length - 1; i >= 0; i--) {
+        locks[i].unlock();
+      }
+    }
+
+  }
+
+  private final ReentrantLock[] stripes;
+  private final LongAdder acquisitions = new LongAdder();
+  private final LongAdder contentions = new LongAdder();
+  private final LongAdder waitTime = new LongAdder();
+
+  @Autowired
+  public AccountLockManager(@Value("${bankapi.account-locks.stripes}") int stripes) {
+    var size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+    this.stripes = new ReentrantLock[size];
+    for (int i = 0; i < size; i++) {
+      this.stripes[i] = new ReentrantLock();
+    }
+  }
+
+  public AccountLocks lock(long accountId) {
+    var lock = stripes[stripeOf(accountId)];
+    acquire(lock);
+    return new AccountLocks(lock);
+  }
+
+  public AccountLocks lock(Collection<Long> accountIds) {
+    // stripes are always acquired in ascending order, so two groups can never wait on each other
+    var indexes = accountIds.stream()
+      .mapToInt(this::stripeOf)
+      .distinct()
+      .sorted()
+      .toArray();
+    var locks = new ReentrantLock[indexes.length];
+    var acquired = 0;
+    try {
+      for (; acquired < indexes.length; acquired++) {
+        locks[acquired] = stripes[indexes[acquired]];
+        acquire(locks[acquired]);
+      }
+    } catch (RuntimeException ex) {
+      while (acquired-- > 0) {
+        locks[acquired].unlock();
+      }
+      throw ex;
+    }
+    return new AccountLocks(locks);
+  }
+
+  public long getAcquisitions() {
+    return acquisitions.sum();
+  }
+
+  public long getContentions() {
+    return contentions.sum();
+  }
+
+  public long getWaitTime(TimeUnit unit) {
+    return unit.convert(waitTime.sum(), TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("bankapi.account-locks.acquisitions", this, AccountLockManager::getAcquisitions)
+      .description("Account lock acquisitions")
+      .register(registry);
+    FunctionCounter.builder("bankapi.account-locks.contentions", this, AccountLockManager::getContentions)
+      .description("Account lock acquisitions that had to wait")
+      .register(registry);
+    FunctionCounter.builder("bankapi.account-locks.wait", this, manager -> manager.getWaitTime(TimeUnit.MICROSECONDS) / 1e6)
+      .description("Time spent waiting for account locks")
+      .baseUnit("seconds")
+      .register(registry);
+  }
+
+  private void acquire(ReentrantLock lock) {
+    acquisitions.increment();
+    if (lock.tryLock()) {
+      return;
+    }
+    contentions.increment();
+    var start = System.nanoTime();
+    lock.lock();
+    waitTime.add(System.nanoTime() - start);
+  }
+
+  private int stripeOf(long accountId) {
+    var hash = Long.hashCode(accountId) * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+  }
+
+}
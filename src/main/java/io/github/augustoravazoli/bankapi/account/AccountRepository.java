@@ -1,9 +1,54 @@
 package io.github.augustoravazoli.bankapi.account;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
 
+  @Modifying
+  @Query(
+    value = "UPDATE account SET balance = balance + :amount, version = version + 1 "
+      + "WHERE id = :id",
+    nativeQuery = true
+  )
+  int addToBalance(@Param("id") long id, @Param("amount") long amount);
+
+  @Query(
+    value = "SELECT a.id FROM account a WHERE a.id IN :ids ORDER BY a.id FOR UPDATE",
+    nativeQuery = true
+  )
+  List<Long> lockAll(@Param("ids") Collection<Long> ids);
+
+  // native, JPQL can't add up the converted Money attributes
+  @Query(
+    value = "SELECT a.id AS id, a.bank AS bank, a.balance + COALESCE(("
+      + "SELECT SUM(p.amount) FROM ledger_pending p WHERE p.account_id = a.id"
+      + "), 0) AS balance, a.created_at AS createdAt "
+      + "FROM account a JOIN customer o ON o.id = a.account_id WHERE a.id = :id AND o.cpf = :cpf",
+    nativeQuery = true
+  )
+  Optional<AccountRow> findRowByIdAndOwnerCpf(
+    @Param("id") long id,
+    @Param("cpf") String ownerCpf
+  );
+
+  boolean existsByIdAndOwnerCpf(long id, String ownerCpf);
+
+  @Query("SELECT a.id FROM Account a WHERE a.id IN :ids")
+  List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+  @Query("SELECT a.id FROM Account a WHERE a.owner.id = :ownerId")
+  List<Long> findIdsByOwnerId(@Param("ownerId") long ownerId);
+
+  @Modifying
+  @Query("DELETE FROM Account a WHERE a.owner.id = :ownerId")
+  int deleteAllByOwnerIdInBulk(@Param("ownerId") long ownerId);
+
 }
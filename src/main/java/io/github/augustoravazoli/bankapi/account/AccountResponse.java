@@ -1,11 +1,19 @@
 package io.github.augustoravazoli.bankapi.account;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.github.augustoravazoli.bankapi.Money;
 
 record AccountResponse(
+  @JsonFormat(shape = JsonFormat.Shape.STRING)
   Long id,
   String bank,
-  BigDecimal balance,
+  Money balance,
   LocalDate createdAt
-) {}
+) {
+
+  AccountResponse(AccountRow row) {
+    this(row.getId(), row.getBank(), Money.ofMinorUnits(row.getBalance()), row.getCreatedAt());
+  }
+
+}
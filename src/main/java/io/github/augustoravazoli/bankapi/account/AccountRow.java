@@ -0,0 +1,16 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import java.time.LocalDate;
+
+interface AccountRow {
+
+  Long getId();
+
+  String getBank();
+
+  // minor units, native projections bypass the Money converter
+  long getBalance();
+
+  LocalDate getCreatedAt();
+
+}
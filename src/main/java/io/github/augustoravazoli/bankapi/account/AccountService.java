@@ -1,76 +1,179 @@
 package io.github.augustoravazoli.bankapi.account;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import io.github.augustoravazoli.bankapi.customer.Customer;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import io.github.augustoravazoli.bankapi.Money;
+import io.github.augustoravazoli.bankapi.RetryExecutor;
+import io.github.augustoravazoli.bankapi.customer.CustomerCache;
 import io.github.augustoravazoli.bankapi.customer.CustomerNotFoundException;
 import io.github.augustoravazoli.bankapi.customer.CustomerRepository;
+import io.github.augustoravazoli.bankapi.customer.CustomerSnapshot;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
 
 @Service
 class AccountService {
 
+  private static final String SERVICE_TIMER = "bankapi.service";
+
   private final AccountRepository accountRepository;
   private final CustomerRepository customerRepository;
+  private final CustomerCache customerCache;
   private final BankClient bankClient;
+  private final RetryExecutor retryExecutor;
+  private final BalanceCheckpoints balanceCheckpoints;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionOperations transactionOperations;
+  private final MeterRegistry registry;
 
   @Autowired
   public AccountService(
     AccountRepository accountRepository,
     CustomerRepository customerRepository,
-    BankClient bankClient
+    CustomerCache customerCache,
+    BankClient bankClient,
+    RetryExecutor retryExecutor,
+    BalanceCheckpoints balanceCheckpoints,
+    ApplicationEventPublisher eventPublisher,
+    TransactionOperations transactionOperations,
+    MeterRegistry registry
   ) {
     this.accountRepository = accountRepository;
     this.customerRepository = customerRepository;
+    this.customerCache = customerCache;
     this.bankClient = bankClient;
+    this.retryExecutor = retryExecutor;
+    this.balanceCheckpoints = balanceCheckpoints;
+    this.eventPublisher = eventPublisher;
+    this.transactionOperations = transactionOperations;
+    this.registry = registry;
   }
 
-  public Account createAccount(String ownerCpf, AccountRequest newAccount) {
-    var customer = getCustomerByCpf(ownerCpf);
-    var bankName = bankClient.findBankNameByCode(newAccount.bankCode());
-    var account = new Account(bankName, customer);
-    return accountRepository.save(account);
+  public Mono<Account> createAccount(String ownerCpf, AccountRequest newAccount) {
+    return timed("createAccount", () -> {
+      var customer = getCustomerByCpf(ownerCpf);
+      return bankClient
+        .findBankNameByCodeAsync(newAccount.bankCode())
+        .map(bankName -> saveAccount(ownerCpf, customer, bankName));
+    });
   }
 
-  public Account findAccount(String ownerCpf, long accountId) {
-    var customer = getCustomerByCpf(ownerCpf);
-    var account = getAccountById(accountId);
-    validateAccountOwner(customer, account);
-    return account;
+  @Timed(SERVICE_TIMER)
+  public AccountResponse findAccount(String ownerCpf, long accountId) {
+    return accountRepository
+      .findRowByIdAndOwnerCpf(accountId, ownerCpf)
+      .map(AccountResponse::new)
+      .orElseThrow(() -> ownedAccountNotFound(ownerCpf));
   }
 
-  public Account editAccount(String ownerCpf, long accountId, AccountRequest newAccount) {
-    var customer = getCustomerByCpf(ownerCpf);
-    var account = getAccountById(accountId);
-    validateAccountOwner(customer, account);
-    var bankName = bankClient.findBankNameByCode(newAccount.bankCode());
-    account.setBank(bankName);
-    return accountRepository.save(account);
+  @Timed(SERVICE_TIMER)
+  public Money findBalance(String ownerCpf, long accountId, LocalDate date) {
+    if (!accountRepository.existsByIdAndOwnerCpf(accountId, ownerCpf)) {
+      throw ownedAccountNotFound(ownerCpf);
+    }
+    return balanceCheckpoints.balanceAt(accountId, date);
+  }
+
+  public Mono<Account> editAccount(String ownerCpf, long accountId, AccountRequest newAccount) {
+    return timed("editAccount", () -> {
+      var customer = getCustomerByCpf(ownerCpf);
+      var account = getAccountById(accountId);
+      validateAccountOwner(customer, account);
+      return bankClient
+        .findBankNameByCodeAsync(newAccount.bankCode())
+        // reload on every attempt, the balance may have moved while the bank was looked up
+        .map(bankName -> retryExecutor.execute(() -> {
+          var currentAccount = getAccountById(accountId);
+          currentAccount.setBank(bankName);
+          return accountRepository.save(currentAccount);
+        }));
+    });
   }
 
+  // the purge listens for the event after commit, so it only runs once the account is really gone
+  @Timed(SERVICE_TIMER)
+  @Transactional
   public void removeAccount(String ownerCpf, long accountId) {
     var customer = getCustomerByCpf(ownerCpf);
     var account = getAccountById(accountId);
     validateAccountOwner(customer, account);
     account.setOwner(null);
     accountRepository.delete(account);
+    eventPublisher.publishEvent(new AccountsRemovedEvent(List.of(accountId)));
+  }
+
+  // a bank lookup that missed the cache continues on another thread, outside the request's
+  // persistence context, so the owner reference is taken in the transaction that saves it
+  private Account saveAccount(String ownerCpf, CustomerSnapshot customer, String bankName) {
+    try {
+      return transactionOperations.execute(status -> accountRepository.save(
+        new Account(bankName, customerRepository.getReferenceById(customer.id()))
+      ));
+    } catch (DataIntegrityViolationException ex) {
+      // another instance removed the customer while it was still cached here
+      if (customerRepository.existsById(customer.id())) {
+        throw ex;
+      }
+      customerCache.evict(ownerCpf);
+      throw new CustomerNotFoundException();
+    }
   }
 
-  private Customer getCustomerByCpf(String ownerCpf) {
-    return customerRepository
+  private CustomerSnapshot getCustomerByCpf(String ownerCpf) {
+    return customerCache
       .findByCpf(ownerCpf)
       .orElseThrow(CustomerNotFoundException::new);
   }
 
+  // only reached when the joined lookup came back empty, to tell which side is missing
+  private RuntimeException ownedAccountNotFound(String ownerCpf) {
+    getCustomerByCpf(ownerCpf);
+    return new AccountNotFoundException();
+  }
+
   private Account getAccountById(long accountId) {
     return accountRepository
       .findById(accountId)
       .orElseThrow(AccountNotFoundException::new);
   }
 
-  private void validateAccountOwner(Customer customer, Account account) {
-    if (customer.getId() != account.getOwner().getId()) {
+  private void validateAccountOwner(CustomerSnapshot customer, Account account) {
+    // the owner is a lazy proxy, reading its id doesn't load the customer
+    if (!Objects.equals(customer.id(), account.getOwner().getId())) {
       throw new AccountMismatchException();
     }
   }
 
+  // @Timed would stop as soon as the Mono is returned, before the bank lookup and the save ran
+  private <T> Mono<T> timed(String method, Supplier<Mono<T>> operation) {
+    var sample = Timer.start(registry);
+    try {
+      return operation.get()
+        .doOnSuccess(result -> stopTimer(sample, method, null))
+        .doOnError(ex -> stopTimer(sample, method, ex));
+    } catch (RuntimeException ex) {
+      stopTimer(sample, method, ex);
+      throw ex;
+    }
+  }
+
+  // same name and tags as the TimedAspect timers, so both land in one metric
+  private void stopTimer(Timer.Sample sample, String method, Throwable ex) {
+    sample.stop(Timer.builder(SERVICE_TIMER)
+      .tag("class", AccountService.class.getName())
+      .tag("method", method)
+      .tag("exception", ex == null ? "none" : ex.getClass().getSimpleName())
+      .register(registry));
+  }
+
 }
@@ -0,0 +1,9 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import java.util.List;
+
+/**
+ * Published once accounts are deleted, so the history left behind can be
+ * purged without holding up the removal.
+ */
+public record AccountsRemovedEvent(List<Long> accountIds) {}
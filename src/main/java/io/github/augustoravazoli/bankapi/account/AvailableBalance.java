@@ -0,0 +1,10 @@
+package io.github.augustoravazoli.bankapi.account;
+
+interface AvailableBalance {
+
+  Long getId();
+
+  // minor units, native projections bypass the Money converter
+  long getBalance();
+
+}
@@ -0,0 +1,58 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import java.time.LocalDate;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import static jakarta.persistence.GenerationType.IDENTITY;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import io.github.augustoravazoli.bankapi.Money;
+
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"account_id", "closing_date"}))
+public class BalanceCheckpoint {
+
+  @Id
+  @GeneratedValue(strategy = IDENTITY)
+  private Long id;
+
+  @Column(name = "account_id", nullable = false)
+  private Long accountId;
+
+  @Column(name = "closing_date", nullable = false)
+  private LocalDate closingDate;
+
+  @Column(nullable = false)
+  private Money balance;
+
+  public BalanceCheckpoint() {}
+
+  public BalanceCheckpoint(
+    Long accountId,
+    LocalDate closingDate,
+    Money balance
+  ) {
+    this.accountId = accountId;
+    this.closingDate = closingDate;
+    this.balance = balance;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public Long getAccountId() {
+    return accountId;
+  }
+
+  public LocalDate getClosingDate() {
+    return closingDate;
+  }
+
+  public Money getBalance() {
+    return balance;
+  }
+
+}
@@ -0,0 +1,66 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+
+  Optional<BalanceCheckpoint> findFirstByAccountIdAndClosingDateLessThanEqualOrderByClosingDateDesc(
+    long accountId,
+    LocalDate date
+  );
+
+  @Query("SELECT MAX(c.closingDate) FROM BalanceCheckpoint c")
+  Optional<LocalDate> findLastClosingDate();
+
+  @Query(value = "SELECT MIN(t.date) FROM transaction t", nativeQuery = true)
+  Optional<LocalDate> findFirstTransactionDate();
+
+  // only the rows dated after the checkpoint are read, through the (account, date) indexes; a row's id is
+  // generated after its date is set, so ids don't tell which side of midnight a row falls on
+  @Query(
+    value = "SELECT COALESCE(SUM(d.amount), 0) FROM ("
+      + "SELECT CASE WHEN t.type = 'DEPOSIT' THEN t.amount ELSE -t.amount END AS amount FROM transaction t "
+      + "WHERE t.origin_account_id = :accountId AND t.date > :afterDate AND t.date <= :date "
+      + "UNION ALL "
+      + "SELECT t.amount FROM transaction t "
+      + "WHERE t.destination_account_id = :accountId AND t.date > :afterDate AND t.date <= :date"
+      + ") d",
+    nativeQuery = true
+  )
+  long sumChanges(
+    @Param("accountId") long accountId,
+    @Param("afterDate") LocalDate afterDate,
+    @Param("date") LocalDate date
+  );
+
+  // closes the day for every account that moved on it, on top of its previous checkpoint
+  @Modifying
+  @Query(
+    value = "INSERT INTO balance_checkpoint (account_id, closing_date, balance) "
+      + "SELECT d.account_id, :date, d.amount + COALESCE(("
+      + "SELECT c.balance FROM balance_checkpoint c WHERE c.account_id = d.account_id "
+      + "AND c.closing_date < :date ORDER BY c.closing_date DESC LIMIT 1"
+      + "), 0) FROM ("
+      + "SELECT m.account_id, SUM(m.amount) AS amount FROM ("
+      + "SELECT t.origin_account_id AS account_id, "
+      + "CASE WHEN t.type = 'DEPOSIT' THEN t.amount ELSE -t.amount END AS amount "
+      + "FROM transaction t WHERE t.date = :date "
+      + "UNION ALL "
+      + "SELECT t.destination_account_id, t.amount "
+      + "FROM transaction t WHERE t.date = :date AND t.destination_account_id IS NOT NULL"
+      + ") m GROUP BY m.account_id"
+      + ") d WHERE NOT EXISTS ("
+      + "SELECT 1 FROM balance_checkpoint c WHERE c.account_id = d.account_id AND c.closing_date = :date"
+      + ")",
+    nativeQuery = true
+  )
+  int closeDay(@Param("date") LocalDate date);
+
+}
@@ -0,0 +1,71 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import java.time.LocalDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import io.github.augustoravazoli.bankapi.Money;
+
+/**
+ * Keeps each account's closing balance for every day it moved, so a past
+ * balance is the nearest checkpoint plus the few transactions after it
+ * instead of a replay of the whole history.
+ */
+@Component
+class BalanceCheckpoints {
+
+  private static final Logger logger = LoggerFactory.getLogger(BalanceCheckpoints.class);
+
+  private final BalanceCheckpointRepository checkpointRepository;
+  private final TransactionOperations transactionOperations;
+
+  @Autowired
+  public BalanceCheckpoints(
+    BalanceCheckpointRepository checkpointRepository,
+    TransactionOperations transactionOperations
+  ) {
+    this.checkpointRepository = checkpointRepository;
+    this.transactionOperations = transactionOperations;
+  }
+
+  public Money balanceAt(long accountId, LocalDate date) {
+    var checkpoint = checkpointRepository
+      .findFirstByAccountIdAndClosingDateLessThanEqualOrderByClosingDateDesc(accountId, date);
+    var balance = checkpoint.map(BalanceCheckpoint::getBalance).orElse(Money.ZERO);
+    // a checkpoint holds every transaction dated up to its closing date, none is dated before the epoch
+    var afterDate = checkpoint.map(BalanceCheckpoint::getClosingDate).orElse(LocalDate.EPOCH);
+    return balance.plus(Money.ofMinorUnits(checkpointRepository.sumChanges(accountId, afterDate, date)));
+  }
+
+  // a day is closed once it's over, transactions are dated when they're created
+  @Scheduled(cron = "${bankapi.balance-checkpoints.cron}")
+  public void closePastDays() {
+    closeDaysUntil(LocalDate.now().minusDays(1));
+  }
+
+  public int closeDaysUntil(LocalDate lastDate) {
+    var nextDate = checkpointRepository
+      .findLastClosingDate()
+      .map(date -> date.plusDays(1))
+      .or(checkpointRepository::findFirstTransactionDate);
+    if (nextDate.isEmpty()) {
+      return 0;
+    }
+    var checkpoints = 0;
+    try {
+      // in order, each day builds on the checkpoints of the days before it
+      for (var date = nextDate.get(); !date.isAfter(lastDate); date = date.plusDays(1)) {
+        var closingDate = date;
+        checkpoints += transactionOperations.execute(status -> checkpointRepository.closeDay(closingDate));
+      }
+    } catch (DataIntegrityViolationException ex) {
+      logger.info("Another instance is closing the same days, leaving it to finish them");
+    }
+    return checkpoints;
+  }
+
+}
@@ -0,0 +1,12 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import java.time.LocalDate;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.github.augustoravazoli.bankapi.Money;
+
+record BalanceResponse(
+  @JsonFormat(shape = JsonFormat.Shape.STRING)
+  Long accountId,
+  LocalDate date,
+  Money balance
+) {}
@@ -1,26 +1,127 @@
 package io.github.augustoravazoli.bankapi.account;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import static java.util.stream.Collectors.toMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 @Component
 class BankClient {
 
-  private static record BankResponse(String fullName) {}
+  private static final Logger logger = LoggerFactory.getLogger(BankClient.class);
+
+  private static record BankResponse(Integer code, String fullName) {}
+
+  // swapped as a whole on refresh, a reader never sees the new banks with the old unknown codes
+  private static record Directory(Map<Integer, String> banks, Cache<Integer, Boolean> unknownCodes) {}
 
   private final WebClient client;
+  private final ObjectMapper mapper;
+  private final Scheduler blockingScheduler;
   private final BankClientProperties properties;
 
+  private volatile Directory directory;
+  private final Map<Integer, Mono<String>> pendingLookups = new ConcurrentHashMap<>();
+
   @Autowired
-  public BankClient(WebClient client, BankClientProperties properties) {
+  public BankClient(
+    WebClient client,
+    ObjectMapper mapper,
+    Scheduler blockingScheduler,
+    BankClientProperties properties
+  ) {
     this.client = client;
+    this.mapper = mapper;
+    this.blockingScheduler = blockingScheduler;
     this.properties = properties;
+    this.directory = newDirectory(new ConcurrentHashMap<>());
   }
 
   public String findBankNameByCode(int code) {
+    return findBankNameByCodeAsync(code).block();
+  }
+
+  public Mono<String> findBankNameByCodeAsync(int code) {
+    var currentDirectory = directory;
+    var bankName = currentDirectory.banks().get(code);
+    if (bankName != null) {
+      return Mono.just(bankName);
+    }
+    if (currentDirectory.unknownCodes().getIfPresent(code) != null) {
+      return Mono.error(new InvalidBankCodeException());
+    }
+    return pendingLookups.computeIfAbsent(code, key -> lookupBankName(key, currentDirectory));
+  }
+
+  @PostConstruct
+  public void loadSnapshot() {
+    var snapshotFile = properties.snapshotFile();
+    if (snapshotFile == null || !Files.isReadable(snapshotFile)) {
+      return;
+    }
+    try {
+      var snapshot = mapper.readValue(
+        snapshotFile.toFile(),
+        new TypeReference<List<BankResponse>>() {}
+      );
+      directory = newDirectory(toDirectory(snapshot));
+      logger.info("Loaded {} banks from snapshot {}", directory.banks().size(), snapshotFile);
+    } catch (IOException ex) {
+      logger.warn("Couldn't read bank snapshot {}", snapshotFile, ex);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${brazil-api.refresh-interval}")
+  public void refreshBanks() {
+    List<BankResponse> fetchedBanks;
+    try {
+      fetchedBanks = client
+        .get()
+        .uri(properties.baseUrl() + "/api/banks/v1")
+        .accept(APPLICATION_JSON)
+        .retrieve()
+        .bodyToFlux(BankResponse.class)
+        .collectList()
+        .block();
+    } catch (RuntimeException ex) {
+      logger.warn("Couldn't refresh bank directory, keeping {} cached banks", directory.banks().size(), ex);
+      return;
+    }
+    directory = newDirectory(toDirectory(fetchedBanks));
+    saveSnapshot(fetchedBanks);
+  }
+
+  // the answer goes to the directory the lookup started from, one replaced meanwhile is simply dropped
+  private Mono<String> lookupBankName(int code, Directory lookupDirectory) {
+    return fetchBankNameByCode(code)
+      .doOnNext(bankName -> lookupDirectory.banks().put(code, bankName))
+      .doOnError(InvalidBankCodeException.class, ex -> lookupDirectory.unknownCodes().put(code, Boolean.TRUE))
+      .doFinally(signal -> pendingLookups.remove(code))
+      .cache()
+      // callers continue with blocking work, so don't hand them the event loop thread
+      .publishOn(blockingScheduler);
+  }
+
+  private Mono<String> fetchBankNameByCode(int code) {
     return client
       .get()
       .uri(properties.baseUrl() + "/api/banks/v1/{code}", code)
@@ -31,8 +132,44 @@ class BankClient {
         response -> { throw new InvalidBankCodeException(); }
       )
       .bodyToMono(BankResponse.class)
-      .block()
-      .fullName();
+      .map(BankResponse::fullName);
+  }
+
+  private void saveSnapshot(List<BankResponse> snapshot) {
+    var snapshotFile = properties.snapshotFile();
+    if (snapshotFile == null) {
+      return;
+    }
+    try {
+      var directory = snapshotFile.toAbsolutePath().getParent();
+      Files.createDirectories(directory);
+      var tempFile = Files.createTempFile(directory, "banks", ".json");
+      mapper.writeValue(tempFile.toFile(), snapshot);
+      Files.move(tempFile, snapshotFile, REPLACE_EXISTING, ATOMIC_MOVE);
+    } catch (IOException ex) {
+      logger.warn("Couldn't write bank snapshot {}", snapshotFile, ex);
+    }
+  }
+
+  // unknown codes come from client input, so they're bounded and forgotten after a while,
+  // a code the remote starts answering for is picked up without waiting for the next refresh
+  private Directory newDirectory(Map<Integer, String> banks) {
+    Cache<Integer, Boolean> unknownCodes = Caffeine.newBuilder()
+      .maximumSize(properties.unknownCodesMaxSize())
+      .expireAfterWrite(properties.unknownCodesTtl())
+      .build();
+    return new Directory(banks, unknownCodes);
+  }
+
+  private static Map<Integer, String> toDirectory(List<BankResponse> banks) {
+    return banks.stream()
+      .filter(bank -> bank.code() != null && bank.fullName() != null)
+      .collect(toMap(
+        BankResponse::code,
+        BankResponse::fullName,
+        (first, second) -> first,
+        ConcurrentHashMap::new
+      ));
   }
 
 }
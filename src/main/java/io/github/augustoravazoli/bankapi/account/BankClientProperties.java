@@ -1,6 +1,13 @@
 package io.github.augustoravazoli.bankapi.account;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(prefix = "brazil-api")
-record BankClientProperties(String baseUrl) {}
+record BankClientProperties(
+  String baseUrl,
+  Path snapshotFile,
+  long unknownCodesMaxSize,
+  Duration unknownCodesTtl
+) {}
@@ -0,0 +1,93 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import static java.util.stream.Collectors.toMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import io.github.augustoravazoli.bankapi.Money;
+
+/**
+ * Append-only record of every balance change. Writers only insert, the
+ * balance column catches up later through {@link LedgerProjector}, and
+ * balances are read as the column plus the entries still pending.
+ */
+@Component
+public class Ledger {
+
+  // the other side of deposits and withdrawals, money entering or leaving the bank
+  public static final long EXTERNAL_ACCOUNT_ID = 0L;
+
+  public static record Posting(
+    long transactionId,
+    Long debitedAccountId,
+    Long creditedAccountId,
+    Money amount
+  ) {}
+
+  private final LedgerEntryRepository entryRepository;
+  private final PendingLedgerEntryRepository pendingRepository;
+  private final AccountRepository accountRepository;
+
+  @Autowired
+  public Ledger(
+    LedgerEntryRepository entryRepository,
+    PendingLedgerEntryRepository pendingRepository,
+    AccountRepository accountRepository
+  ) {
+    this.entryRepository = entryRepository;
+    this.pendingRepository = pendingRepository;
+    this.accountRepository = accountRepository;
+  }
+
+  public void post(List<Posting> postings) {
+    var entries = new ArrayList<LedgerEntry>(postings.size() * 2);
+    var pendingEntries = new ArrayList<PendingLedgerEntry>(postings.size() * 2);
+    for (var posting : postings) {
+      addEntry(entries, pendingEntries, posting.transactionId(), posting.debitedAccountId(), posting.amount().negate());
+      addEntry(entries, pendingEntries, posting.transactionId(), posting.creditedAccountId(), posting.amount());
+    }
+    entryRepository.saveAll(entries);
+    pendingRepository.saveAll(pendingEntries);
+  }
+
+  public Optional<Money> lockAvailableBalance(long accountId) {
+    return Optional.ofNullable(lockAvailableBalances(List.of(accountId)).get(accountId));
+  }
+
+  /**
+   * Locks the accounts, then reads their balances. The read is a statement
+   * of its own, so it can't see a projection that committed while it waited.
+   */
+  public Map<Long, Money> lockAvailableBalances(Collection<Long> accountIds) {
+    if (accountIds.isEmpty()) {
+      return Map.of();
+    }
+    var lockedIds = accountRepository.lockAll(accountIds);
+    if (lockedIds.isEmpty()) {
+      return Map.of();
+    }
+    return pendingRepository.findAvailableBalances(lockedIds)
+      .stream()
+      .collect(toMap(AvailableBalance::getId, balance -> Money.ofMinorUnits(balance.getBalance())));
+  }
+
+  private static void addEntry(
+    List<LedgerEntry> entries,
+    List<PendingLedgerEntry> pendingEntries,
+    long transactionId,
+    Long accountId,
+    Money amount
+  ) {
+    if (accountId == null) {
+      entries.add(new LedgerEntry(transactionId, EXTERNAL_ACCOUNT_ID, amount));
+      return;
+    }
+    entries.add(new LedgerEntry(transactionId, accountId, amount));
+    pendingEntries.add(new PendingLedgerEntry(accountId, amount));
+  }
+
+}
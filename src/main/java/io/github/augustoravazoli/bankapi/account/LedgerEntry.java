@@ -0,0 +1,58 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import org.hibernate.annotations.Immutable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import io.github.augustoravazoli.bankapi.Money;
+import io.github.augustoravazoli.bankapi.SnowflakeId;
+
+@Entity
+@Immutable
+@Table(indexes = {
+  @Index(name = "ledger_entry_account_id_id_idx", columnList = "accountId, id"),
+  @Index(name = "ledger_entry_transaction_id_idx", columnList = "transactionId")
+})
+public class LedgerEntry {
+
+  @Id
+  @SnowflakeId
+  private Long id;
+
+  @Column(nullable = false)
+  private Long transactionId;
+
+  @Column(nullable = false)
+  private Long accountId;
+
+  // credits are positive, debits negative, the entries of a transaction sum up to zero
+  @Column(nullable = false)
+  private Money amount;
+
+  public LedgerEntry() {}
+
+  public LedgerEntry(Long transactionId, Long accountId, Money amount) {
+    this.transactionId = transactionId;
+    this.accountId = accountId;
+    this.amount = amount;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public Long getTransactionId() {
+    return transactionId;
+  }
+
+  public Long getAccountId() {
+    return accountId;
+  }
+
+  public Money getAmount() {
+    return amount;
+  }
+
+}
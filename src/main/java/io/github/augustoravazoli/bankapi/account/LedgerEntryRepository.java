@@ -0,0 +1,7 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {}
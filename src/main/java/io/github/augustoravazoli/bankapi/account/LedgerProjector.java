@@ -0,0 +1,64 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import java.util.TreeMap;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.reducing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import io.github.augustoravazoli.bankapi.Money;
+
+@Component
+class LedgerProjector {
+
+  private final PendingLedgerEntryRepository pendingRepository;
+  private final AccountRepository accountRepository;
+  private final TransactionOperations transactionOperations;
+  private final int batchSize;
+
+  @Autowired
+  public LedgerProjector(
+    PendingLedgerEntryRepository pendingRepository,
+    AccountRepository accountRepository,
+    TransactionOperations transactionOperations,
+    @Value("${bankapi.ledger.projection-batch-size}") int batchSize
+  ) {
+    this.pendingRepository = pendingRepository;
+    this.accountRepository = accountRepository;
+    this.transactionOperations = transactionOperations;
+    this.batchSize = batchSize;
+  }
+
+  @Scheduled(fixedDelayString = "${bankapi.ledger.projection-interval}")
+  public void project() {
+    while (projectBatch() == batchSize);
+  }
+
+  /**
+   * Folds the oldest pending entries into their accounts and deletes exactly
+   * those rows, in one transaction. Entries committed meanwhile stay pending
+   * for the next batch, whatever their id.
+   */
+  public int projectBatch() {
+    return transactionOperations.execute(status -> {
+      var entries = pendingRepository.findOldestForUpdate(PageRequest.of(0, batchSize));
+      if (entries.isEmpty()) {
+        return 0;
+      }
+      // account rows are locked in id order, like every other multi-account lock
+      entries.stream()
+        .collect(groupingBy(
+          PendingLedgerEntry::getAccountId,
+          TreeMap::new,
+          reducing(Money.ZERO, PendingLedgerEntry::getAmount, Money::plus)
+        ))
+        .forEach((accountId, amount) -> accountRepository.addToBalance(accountId, amount.minorUnits()));
+      pendingRepository.deleteAllInBatch(entries);
+      return entries.size();
+    });
+  }
+
+}
@@ -0,0 +1,51 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import io.github.augustoravazoli.bankapi.Money;
+import io.github.augustoravazoli.bankapi.SnowflakeId;
+
+/**
+ * A ledger amount not yet folded into its account's balance column. Rows
+ * are only ever inserted by writers and deleted by the projection.
+ */
+@Entity
+@Table(
+  name = "ledger_pending",
+  indexes = @Index(name = "ledger_pending_account_id_idx", columnList = "accountId")
+)
+public class PendingLedgerEntry {
+
+  @Id
+  @SnowflakeId
+  private Long id;
+
+  @Column(nullable = false)
+  private Long accountId;
+
+  @Column(nullable = false)
+  private Money amount;
+
+  public PendingLedgerEntry() {}
+
+  public PendingLedgerEntry(Long accountId, Money amount) {
+    this.accountId = accountId;
+    this.amount = amount;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public Long getAccountId() {
+    return accountId;
+  }
+
+  public Money getAmount() {
+    return amount;
+  }
+
+}
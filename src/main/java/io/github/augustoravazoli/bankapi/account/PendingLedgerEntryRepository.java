@@ -0,0 +1,28 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import java.util.Collection;
+import java.util.List;
+import static jakarta.persistence.LockModeType.PESSIMISTIC_WRITE;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+interface PendingLedgerEntryRepository extends JpaRepository<PendingLedgerEntry, Long> {
+
+  @Lock(PESSIMISTIC_WRITE)
+  @Query("SELECT p FROM PendingLedgerEntry p ORDER BY p.id")
+  List<PendingLedgerEntry> findOldestForUpdate(Pageable pageable);
+
+  @Query(
+    value = "SELECT a.id AS id, a.balance + COALESCE(("
+      + "SELECT SUM(p.amount) FROM ledger_pending p WHERE p.account_id = a.id"
+      + "), 0) AS balance FROM account a WHERE a.id IN :ids",
+    nativeQuery = true
+  )
+  List<AvailableBalance> findAvailableBalances(@Param("ids") Collection<Long> ids);
+
+}
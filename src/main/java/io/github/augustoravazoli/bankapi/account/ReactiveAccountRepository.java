@@ -0,0 +1,20 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveAccountRepository extends R2dbcRepository<AccountBalance, Long> {
+
+  @Query("SELECT id FROM account WHERE id = :id FOR UPDATE")
+  Mono<Long> lock(@Param("id") long id);
+
+  @Query("SELECT CAST(a.balance + COALESCE(("
+    + "SELECT SUM(p.amount) FROM ledger_pending p WHERE p.account_id = a.id"
+    + "), 0) AS BIGINT) FROM account a WHERE a.id = :id")
+  Mono<Long> findAvailableBalance(@Param("id") long id);
+
+}
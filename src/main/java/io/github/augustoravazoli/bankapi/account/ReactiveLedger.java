@@ -0,0 +1,73 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import io.github.augustoravazoli.bankapi.Money;
+import io.github.augustoravazoli.bankapi.SnowflakeIdGenerator;
+import io.github.augustoravazoli.bankapi.account.Ledger.Posting;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The {@link Ledger} for the R2DBC pipeline, writing the same entries with
+ * plain SQL so both pipelines leave balances to {@link LedgerProjector}.
+ */
+@ConditionalOnProperty(name = "bankapi.transactions.reactive", havingValue = "true")
+@Component
+public class ReactiveLedger {
+
+  private final DatabaseClient databaseClient;
+  private final ReactiveAccountRepository accountRepository;
+  private final SnowflakeIdGenerator idGenerator;
+
+  @Autowired
+  public ReactiveLedger(
+    DatabaseClient databaseClient,
+    ReactiveAccountRepository accountRepository,
+    @Value("${bankapi.ids.node-id}") int nodeId
+  ) {
+    this.databaseClient = databaseClient;
+    this.accountRepository = accountRepository;
+    this.idGenerator = SnowflakeIdGenerator.shared(nodeId);
+  }
+
+  public Mono<Void> post(Posting posting) {
+    return Flux.concat(
+      insertEntry(posting.transactionId(), posting.debitedAccountId(), posting.amount().negate()),
+      insertEntry(posting.transactionId(), posting.creditedAccountId(), posting.amount())
+    ).then();
+  }
+
+  // locked and read in two statements, for the same reason as Ledger.lockAvailableBalances
+  public Mono<Money> lockAvailableBalance(long accountId) {
+    return accountRepository
+      .lock(accountId)
+      .flatMap(accountRepository::findAvailableBalance)
+      .map(Money::ofMinorUnits);
+  }
+
+  private Mono<Void> insertEntry(long transactionId, Long accountId, Money amount) {
+    var entry = databaseClient
+      .sql("INSERT INTO ledger_entry (id, transaction_id, account_id, amount) "
+        + "VALUES (:id, :transactionId, :accountId, :amount)")
+      .bind("id", idGenerator.nextId())
+      .bind("transactionId", transactionId)
+      .bind("accountId", accountId == null ? Ledger.EXTERNAL_ACCOUNT_ID : accountId)
+      .bind("amount", amount.minorUnits())
+      .then();
+    if (accountId == null) {
+      return entry;
+    }
+    return entry.then(databaseClient
+      .sql("INSERT INTO ledger_pending (id, account_id, amount) VALUES (:id, :accountId, :amount)")
+      .bind("id", idGenerator.nextId())
+      .bind("accountId", accountId)
+      .bind("amount", amount.minorUnits())
+      .then()
+    );
+  }
+
+}
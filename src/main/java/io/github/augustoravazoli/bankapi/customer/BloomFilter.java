@@ -0,0 +1,66 @@
+package io.github.augustoravazoli.bankapi.customer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size set of strings that answers "definitely absent" or "maybe
+ * present". Keys can't be removed, so a removed key stays a maybe.
+ */
+class BloomFilter {
+
+  private final AtomicLongArray words;
+  private final long bits;
+  private final int hashes;
+
+  BloomFilter(long expectedInsertions, double falsePositiveRate) {
+    var n = Math.max(expectedInsertions, 1);
+    var optimalBits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    this.words = new AtomicLongArray((int) Math.max((optimalBits + 63) / 64, 1));
+    this.bits = words.length() * 64L;
+    this.hashes = (int) Math.max(Math.round((double) bits / n * Math.log(2)), 1);
+  }
+
+  void put(String key) {
+    var hash = hash(key);
+    for (int i = 0; i < hashes; i++) {
+      var bit = bitIndex(hash, i);
+      var mask = 1L << bit;
+      words.getAndAccumulate((int) (bit >>> 6), mask, (word, set) -> word | set);
+    }
+  }
+
+  boolean mightContain(String key) {
+    var hash = hash(key);
+    for (int i = 0; i < hashes; i++) {
+      var bit = bitIndex(hash, i);
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // double hashing, both halves taken from one 64 bit hash
+  private long bitIndex(long hash, int i) {
+    var h1 = (int) hash;
+    var h2 = (int) (hash >>> 32);
+    return Math.floorMod(h1 + (long) i * h2, bits);
+  }
+
+  private static long hash(String key) {
+    // FNV-1a over the utf-8 bytes, then a murmur3 finalizer to spread the bits
+    var hash = 0xcbf29ce484222325L;
+    for (var b : key.getBytes(UTF_8)) {
+      hash ^= b & 0xff;
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+}
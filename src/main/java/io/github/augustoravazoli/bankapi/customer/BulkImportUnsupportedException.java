@@ -0,0 +1,12 @@
+package io.github.augustoravazoli.bankapi.customer;
+
+import static org.springframework.http.HttpStatus.NOT_IMPLEMENTED;
+import org.springframework.web.server.ResponseStatusException;
+
+class BulkImportUnsupportedException extends ResponseStatusException {
+
+  public BulkImportUnsupportedException() {
+    super(NOT_IMPLEMENTED, "bulk import needs a postgresql database");
+  }
+
+}
@@ -9,21 +9,30 @@ import static jakarta.persistence.CascadeType.ALL;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import static jakarta.persistence.FetchType.LAZY;
-import jakarta.persistence.GeneratedValue;
-import static jakarta.persistence.GenerationType.IDENTITY;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Past;
 import jakarta.validation.constraints.Pattern;
 import io.github.augustoravazoli.bankapi.Application.Default;
+import io.github.augustoravazoli.bankapi.SnowflakeId;
 import io.github.augustoravazoli.bankapi.account.Account;
 
 @Entity
+@Table(uniqueConstraints = {
+  @UniqueConstraint(name = Customer.EMAIL_CONSTRAINT, columnNames = "email"),
+  @UniqueConstraint(name = Customer.CPF_CONSTRAINT, columnNames = "cpf")
+})
 public class Customer {
 
+  static final String EMAIL_CONSTRAINT = "customer_email_key";
+  static final String CPF_CONSTRAINT = "customer_cpf_key";
+
   @Id
-  @GeneratedValue(strategy = IDENTITY)
+  @SnowflakeId
   private Long id;
 
   @Pattern(
@@ -34,18 +43,21 @@ public class Customer {
   private String name;
 
   @Email
-  @Column(nullable = false, unique = true)
+  @Column(nullable = false)
   private String email;
 
   @CPF
   @NaturalId
-  @Column(nullable = false, unique = true)
+  @Column(nullable = false)
   private String cpf;
 
   @Past
   @Column(nullable = false)
   private LocalDate birthDate;
 
+  @Version
+  private long version;
+
   @OneToMany(mappedBy = "owner", cascade = ALL, fetch = LAZY, orphanRemoval = true)
   private List<Account> accounts = new ArrayList<>();
 
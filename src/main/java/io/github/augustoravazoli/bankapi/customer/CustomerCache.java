@@ -0,0 +1,74 @@
+package io.github.augustoravazoli.bankapi.customer;
+
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+@Component
+public class CustomerCache implements MeterBinder {
+
+  private final CustomerRepository customerRepository;
+  // caffeine evicts with W-TinyLFU, so a burst of one-off cpfs can't flush the frequent ones
+  private final Cache<String, CustomerSnapshot> customers;
+
+  @Autowired
+  public CustomerCache(CustomerRepository customerRepository, CustomerCacheProperties properties) {
+    this.customerRepository = customerRepository;
+    this.customers = Caffeine.newBuilder()
+      .maximumSize(properties.maxSize())
+      .recordStats()
+      .build();
+  }
+
+  public Optional<CustomerSnapshot> findByCpf(String cpf) {
+    // unknown cpfs aren't cached, a customer created afterwards is found right away
+    return Optional.ofNullable(customers.get(cpf, key -> customerRepository
+      .findByCpf(key)
+      .map(CustomerSnapshot::of)
+      .orElse(null)
+    ));
+  }
+
+  public void evict(String cpf) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      customers.invalidate(cpf);
+      return;
+    }
+    // a reader could reload the old row before the change commits, so evict once it's visible
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        customers.invalidate(cpf);
+      }
+    });
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, customers, "customers");
+  }
+
+  public long getHits() {
+    return customers.stats().hitCount();
+  }
+
+  public long getMisses() {
+    return customers.stats().missCount();
+  }
+
+  public long getEvictions() {
+    return customers.stats().evictionCount();
+  }
+
+  public long getSize() {
+    return customers.estimatedSize();
+  }
+
+}
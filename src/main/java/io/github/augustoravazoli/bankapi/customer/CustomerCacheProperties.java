@@ -0,0 +1,6 @@
+package io.github.augustoravazoli.bankapi.customer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bankapi.customers.cache")
+record CustomerCacheProperties(long maxSize) {}
@@ -1,8 +1,13 @@
 package io.github.augustoravazoli.bankapi.customer;
 
+import java.io.InputStream;
 import java.util.stream.Stream;
 import org.hibernate.validator.constraints.br.CPF;
 import org.springframework.beans.factory.annotation.Autowired;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import org.springframework.http.MediaType;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,7 +15,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -23,11 +30,17 @@ class CustomerController {
 
   private final CustomerService customerService;
   private final CustomerMapper customerMapper;
+  private final CustomerImporter customerImporter;
 
   @Autowired
-  public CustomerController(CustomerService customerService, CustomerMapper customerMapper) {
+  public CustomerController(
+    CustomerService customerService,
+    CustomerMapper customerMapper,
+    CustomerImporter customerImporter
+  ) {
     this.customerService = customerService;
     this.customerMapper = customerMapper;
+    this.customerImporter = customerImporter;
   }
 
   @Validated(OnCreate.class)
@@ -47,6 +60,20 @@ class CustomerController {
     return ResponseEntity.created(location).body(savedCustomer);
   }
 
+  @PostMapping(path = "/import", consumes = {APPLICATION_NDJSON_VALUE, "text/csv"})
+  public ResponseEntity<StreamingResponseBody> importCustomers(
+    @RequestHeader(CONTENT_TYPE) String contentType,
+    InputStream upload
+  ) {
+    if (!customerImporter.isSupported()) {
+      throw new BulkImportUnsupportedException();
+    }
+    var format = CustomerImportFormat.of(MediaType.parseMediaType(contentType)).orElseThrow();
+    return ResponseEntity.ok()
+      .contentType(APPLICATION_NDJSON)
+      .body(out -> customerImporter.importCustomers(upload, format, out));
+  }
+
   @GetMapping("/{cpf}")
   public ResponseEntity<CustomerResponse> findCustomer(@CPF @PathVariable String cpf) {
     var findedCustomer = Stream.of(cpf)
@@ -0,0 +1,30 @@
+package io.github.augustoravazoli.bankapi.customer;
+
+import java.util.Arrays;
+import java.util.Optional;
+import org.springframework.http.MediaType;
+
+enum CustomerImportFormat {
+
+  NDJSON(MediaType.APPLICATION_NDJSON),
+  CSV(new MediaType("text", "csv"));
+
+  static final String CSV_HEADER = "name,email,cpf,birthDate";
+
+  private final MediaType mediaType;
+
+  CustomerImportFormat(MediaType mediaType) {
+    this.mediaType = mediaType;
+  }
+
+  public MediaType getMediaType() {
+    return mediaType;
+  }
+
+  public static Optional<CustomerImportFormat> of(MediaType contentType) {
+    return Arrays.stream(values())
+      .filter(format -> format.mediaType.isCompatibleWith(contentType))
+      .findFirst();
+  }
+
+}
@@ -0,0 +1,84 @@
+package io.github.augustoravazoli.bankapi.customer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
+
+/**
+ * Turns one uploaded line into a customer request, holding it to the same
+ * rules POST /customers does.
+ */
+class CustomerImportParser {
+
+  static record Row(long line, CustomerRequest customer, CustomerImportRejection rejection) {
+
+    boolean isRejected() {
+      return rejection != null;
+    }
+
+  }
+
+  private final ObjectReader reader;
+  private final Validator validator;
+
+  CustomerImportParser(ObjectMapper mapper, Validator validator) {
+    this.reader = mapper.readerFor(CustomerRequest.class);
+    this.validator = validator;
+  }
+
+  Row parse(long line, String text, CustomerImportFormat format) {
+    CustomerRequest customer;
+    try {
+      customer = format == CustomerImportFormat.CSV ? fromCsv(text) : reader.readValue(text);
+    } catch (IOException | DateTimeParseException | IllegalArgumentException ex) {
+      customer = null;
+    }
+    if (customer == null) {
+      return new Row(line, null, new CustomerImportRejection(line, "malformed row"));
+    }
+    var errors = validator.validate(customer, Default.class, OnCreate.class)
+      .stream()
+      .map(violation -> new CustomerImportRejection.FieldError(
+        violation.getPropertyPath().toString(),
+        violation.getMessage()
+      ))
+      .sorted(Comparator
+        .comparing(CustomerImportRejection.FieldError::field)
+        .thenComparing(CustomerImportRejection.FieldError::message)
+      )
+      .toList();
+    if (!errors.isEmpty()) {
+      return new Row(
+        line,
+        null,
+        new CustomerImportRejection(line, "validation errors on your request", errors)
+      );
+    }
+    return new Row(line, customer, null);
+  }
+
+  private static CustomerRequest fromCsv(String text) {
+    var fields = text.split(",", -1);
+    if (fields.length != 4) {
+      throw new IllegalArgumentException("expected 4 fields but got " + fields.length);
+    }
+    var birthDate = blankToNull(fields[3]);
+    return new CustomerRequest(
+      blankToNull(fields[0]),
+      blankToNull(fields[1]),
+      blankToNull(fields[2]),
+      birthDate == null ? null : LocalDate.parse(birthDate)
+    );
+  }
+
+  private static String blankToNull(String field) {
+    var trimmed = field.trim();
+    return trimmed.isEmpty() ? null : trimmed;
+  }
+
+}
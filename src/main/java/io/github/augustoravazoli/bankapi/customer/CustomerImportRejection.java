@@ -0,0 +1,16 @@
+package io.github.augustoravazoli.bankapi.customer;
+
+import java.util.List;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record CustomerImportRejection(long line, String message, List<FieldError> errors) {
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  static record FieldError(String field, String message) {}
+
+  CustomerImportRejection(long line, String message) {
+    this(line, message, null);
+  }
+
+}
@@ -0,0 +1,270 @@
+package io.github.augustoravazoli.bankapi.customer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.Validator;
+import io.github.augustoravazoli.bankapi.SnowflakeIdGenerator;
+
+/**
+ * Loads an upload of customers with COPY into a temporary staging table and
+ * merges it into customer with a handful of set based statements, all in
+ * one transaction. Rows that can't be imported are written to the report.
+ */
+@Component
+class CustomerImporter {
+
+  private static final Logger logger = LoggerFactory.getLogger(CustomerImporter.class);
+
+  private static final String CREATE_STAGING = "CREATE TEMPORARY TABLE customer_import ("
+    + "line bigint NOT NULL, id bigint NOT NULL, name text NOT NULL, email text NOT NULL, "
+    + "cpf text NOT NULL, birth_date date NOT NULL, rejection text"
+    + ") ON COMMIT DROP";
+
+  private static final String COPY_STAGING =
+    "COPY customer_import (line, id, name, email, cpf, birth_date) FROM STDIN WITH (FORMAT csv)";
+
+  private static final List<String> INDEX_STAGING = List.of(
+    "CREATE INDEX ON customer_import (email)",
+    "CREATE INDEX ON customer_import (cpf)",
+    "ANALYZE customer_import"
+  );
+
+  // same order and messages as a single signup, the first occurrence in the upload wins
+  private static final List<String> REJECT_STAGED = List.of(
+    "UPDATE customer_import s SET rejection = 'email address already in use' "
+      + "WHERE EXISTS (SELECT 1 FROM customer c WHERE c.email = s.email)",
+    "UPDATE customer_import s SET rejection = 'cpf number already in use' "
+      + "WHERE s.rejection IS NULL AND EXISTS (SELECT 1 FROM customer c WHERE c.cpf = s.cpf)",
+    "UPDATE customer_import s SET rejection = 'email address repeated in this upload' "
+      + "WHERE s.rejection IS NULL AND EXISTS (SELECT 1 FROM customer_import f "
+      + "WHERE f.email = s.email AND f.line < s.line AND f.rejection IS NULL)",
+    "UPDATE customer_import s SET rejection = 'cpf number repeated in this upload' "
+      + "WHERE s.rejection IS NULL AND EXISTS (SELECT 1 FROM customer_import f "
+      + "WHERE f.cpf = s.cpf AND f.line < s.line AND f.rejection IS NULL)"
+  );
+
+  // a signup committed since the checks above loses nothing, its row is reported instead
+  private static final String MERGE_STAGED = "WITH inserted AS ("
+    + "INSERT INTO customer (id, name, email, cpf, birth_date, version) "
+    + "SELECT id, name, email, cpf, birth_date, 0 FROM customer_import WHERE rejection IS NULL "
+    + "ON CONFLICT DO NOTHING RETURNING id"
+    + ") UPDATE customer_import s SET rejection = 'email address or cpf number already in use' "
+    + "WHERE s.rejection IS NULL AND NOT EXISTS (SELECT 1 FROM inserted i WHERE i.id = s.id)";
+
+  private static final String FIND_REJECTED =
+    "SELECT line, rejection FROM customer_import WHERE rejection IS NOT NULL ORDER BY line";
+
+  private static final String FIND_IMPORTED =
+    "SELECT email, cpf FROM customer_import WHERE rejection IS NULL";
+
+  private static record Line(long number, String text) {}
+
+  private final DataSource dataSource;
+  private final CustomerImportParser parser;
+  private final ObjectWriter reportWriter;
+  private final CustomerKeyFilter customerKeyFilter;
+  private final SnowflakeIdGenerator idGenerator;
+  private final int chunkSize;
+
+  private volatile boolean supported;
+
+  @Autowired
+  public CustomerImporter(
+    DataSource dataSource,
+    ObjectMapper mapper,
+    Validator validator,
+    CustomerKeyFilter customerKeyFilter,
+    @Value("${bankapi.ids.node-id}") int nodeId,
+    @Value("${bankapi.customers.import.chunk-size}") int chunkSize
+  ) {
+    this.dataSource = dataSource;
+    this.parser = new CustomerImportParser(mapper, validator);
+    this.reportWriter = mapper.writerFor(CustomerImportRejection.class);
+    this.customerKeyFilter = customerKeyFilter;
+    this.idGenerator = SnowflakeIdGenerator.shared(nodeId);
+    this.chunkSize = chunkSize;
+  }
+
+  @PostConstruct
+  public void detectCopySupport() {
+    try (var connection = dataSource.getConnection()) {
+      supported = connection.isWrapperFor(PGConnection.class);
+    } catch (SQLException ex) {
+      logger.warn("Couldn't tell whether the database supports COPY, bulk import stays off", ex);
+    }
+  }
+
+  public boolean isSupported() {
+    return supported;
+  }
+
+  public void importCustomers(InputStream in, CustomerImportFormat format, OutputStream out)
+    throws IOException {
+    var reader = new BufferedReader(new InputStreamReader(in, UTF_8));
+    var report = new BufferedWriter(new OutputStreamWriter(out, UTF_8));
+    try (var connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try {
+        execute(connection, List.of(CREATE_STAGING));
+        var staged = stage(connection, reader, format, report);
+        execute(connection, INDEX_STAGING);
+        execute(connection, REJECT_STAGED);
+        execute(connection, List.of(MERGE_STAGED));
+        var rejected = reportRejected(connection, report);
+        var imported = addImportedKeys(connection);
+        connection.commit();
+        logger.info("Imported {} of {} staged customers, {} rejected", imported, staged, rejected);
+      } catch (SQLException | RuntimeException | IOException ex) {
+        connection.rollback();
+        throw ex;
+      }
+    } catch (SQLException ex) {
+      throw new IllegalStateException("customer import failed", ex);
+    }
+    report.flush();
+  }
+
+  // validates chunk by chunk in parallel, copying the valid rows while the upload is still arriving
+  private long stage(
+    Connection connection,
+    BufferedReader reader,
+    CustomerImportFormat format,
+    BufferedWriter report
+  ) throws SQLException, IOException {
+    var copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING);
+    try {
+      var staged = 0L;
+      var lineNumber = 0L;
+      var chunk = new ArrayList<Line>(chunkSize);
+      String text;
+      while ((text = reader.readLine()) != null) {
+        lineNumber++;
+        if (text.isBlank() || lineNumber == 1 && isCsvHeader(format, text)) {
+          continue;
+        }
+        chunk.add(new Line(lineNumber, text));
+        if (chunk.size() == chunkSize) {
+          staged += stageChunk(copy, chunk, format, report);
+          chunk.clear();
+        }
+      }
+      staged += stageChunk(copy, chunk, format, report);
+      copy.endCopy();
+      return staged;
+    } finally {
+      if (copy.isActive()) {
+        copy.cancelCopy();
+      }
+    }
+  }
+
+  private long stageChunk(
+    CopyIn copy,
+    List<Line> chunk,
+    CustomerImportFormat format,
+    BufferedWriter report
+  ) throws SQLException, IOException {
+    var rows = chunk.parallelStream()
+      .map(line -> parser.parse(line.number(), line.text(), format))
+      .toList();
+    var csv = new StringBuilder();
+    var staged = 0L;
+    for (var row : rows) {
+      if (row.isRejected()) {
+        writeRejection(report, row.rejection());
+        continue;
+      }
+      appendCsv(csv, row);
+      staged++;
+    }
+    var bytes = csv.toString().getBytes(UTF_8);
+    copy.writeToCopy(bytes, 0, bytes.length);
+    report.flush();
+    return staged;
+  }
+
+  private void appendCsv(StringBuilder csv, CustomerImportParser.Row row) {
+    var customer = row.customer();
+    csv.append(row.line()).append(',')
+      .append(idGenerator.nextId()).append(',')
+      .append(quote(customer.name())).append(',')
+      .append(quote(customer.email())).append(',')
+      .append(quote(customer.cpf())).append(',')
+      .append(customer.birthDate())
+      .append('\n');
+  }
+
+  private long reportRejected(Connection connection, BufferedWriter report)
+    throws SQLException, IOException {
+    var rejected = 0L;
+    try (var statement = connection.prepareStatement(FIND_REJECTED)) {
+      statement.setFetchSize(chunkSize);
+      try (var rows = statement.executeQuery()) {
+        while (rows.next()) {
+          writeRejection(report, new CustomerImportRejection(rows.getLong(1), rows.getString(2)));
+          rejected++;
+        }
+      }
+    }
+    return rejected;
+  }
+
+  private long addImportedKeys(Connection connection) throws SQLException {
+    var imported = 0L;
+    try (var statement = connection.prepareStatement(FIND_IMPORTED)) {
+      statement.setFetchSize(chunkSize);
+      try (var rows = statement.executeQuery()) {
+        while (rows.next()) {
+          customerKeyFilter.add(rows.getString(1), rows.getString(2));
+          imported++;
+        }
+      }
+    }
+    return imported;
+  }
+
+  private void writeRejection(BufferedWriter report, CustomerImportRejection rejection)
+    throws IOException {
+    report.write(reportWriter.writeValueAsString(rejection));
+    report.newLine();
+  }
+
+  private static void execute(Connection connection, List<String> sqls) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      for (var sql : sqls) {
+        statement.execute(sql);
+      }
+    }
+  }
+
+  private static boolean isCsvHeader(CustomerImportFormat format, String text) {
+    return format == CustomerImportFormat.CSV
+      && text.replace(" ", "").equalsIgnoreCase(CustomerImportFormat.CSV_HEADER);
+  }
+
+  private static String quote(String value) {
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+
+}
@@ -0,0 +1,78 @@
+package io.github.augustoravazoli.bankapi.customer;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Emails and cpfs known to be taken. Only ever a shortcut: a key inserted by
+ * another instance isn't here, the unique constraints still have the last word.
+ */
+@Component
+class CustomerKeyFilter {
+
+  private static final Logger logger = LoggerFactory.getLogger(CustomerKeyFilter.class);
+  private static final int FETCH_SIZE = 1000;
+
+  private final EntityManager entityManager;
+  private final TransactionTemplate readOnlyTransaction;
+  private final BloomFilter emails;
+  private final BloomFilter cpfs;
+
+  @Autowired
+  public CustomerKeyFilter(
+    EntityManager entityManager,
+    PlatformTransactionManager transactionManager,
+    CustomerKeyFilterProperties properties
+  ) {
+    this.entityManager = entityManager;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.emails = new BloomFilter(properties.expectedInsertions(), properties.falsePositiveRate());
+    this.cpfs = new BloomFilter(properties.expectedInsertions(), properties.falsePositiveRate());
+  }
+
+  @PostConstruct
+  public void rebuild() {
+    var count = readOnlyTransaction.execute(status -> {
+      var query = entityManager
+        .createQuery("SELECT c.email, c.cpf FROM Customer c", Object[].class)
+        .setHint(HINT_FETCH_SIZE, FETCH_SIZE)
+        .setHint(HINT_READ_ONLY, true);
+      var loaded = 0L;
+      try (var keys = query.getResultStream()) {
+        for (var iterator = keys.iterator(); iterator.hasNext(); loaded++) {
+          var key = iterator.next();
+          add((String) key[0], (String) key[1]);
+        }
+      }
+      return loaded;
+    });
+    logger.info("Loaded {} customers into the key filter", count);
+  }
+
+  public void add(String email, String cpf) {
+    emails.put(email);
+    cpfs.put(cpf);
+  }
+
+  public void addEmail(String email) {
+    emails.put(email);
+  }
+
+  public boolean mightContainEmail(String email) {
+    return emails.mightContain(email);
+  }
+
+  public boolean mightContainCpf(String cpf) {
+    return cpfs.mightContain(cpf);
+  }
+
+}
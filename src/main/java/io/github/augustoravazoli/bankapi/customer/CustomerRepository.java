@@ -2,6 +2,8 @@ package io.github.augustoravazoli.bankapi.customer;
 
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -13,6 +15,8 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
   boolean existsByCpf(String cpf);
 
-  void deleteByCpf(String cpf);
+  // new accounts check their owner row, so they wait until a removal holding this lock ends
+  @Query(value = "SELECT id FROM customer WHERE cpf = :cpf FOR UPDATE", nativeQuery = true)
+  Optional<Long> lockIdByCpf(@Param("cpf") String cpf);
 
 }
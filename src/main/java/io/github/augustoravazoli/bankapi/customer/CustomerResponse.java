@@ -1,8 +1,10 @@
 package io.github.augustoravazoli.bankapi.customer;
 
 import java.time.LocalDate;
+import com.fasterxml.jackson.annotation.JsonFormat;
 
 record CustomerResponse (
+  @JsonFormat(shape = JsonFormat.Shape.STRING)
   Long id,
   String name,
   String email,
@@ -1,27 +1,58 @@
 package io.github.augustoravazoli.bankapi.customer;
 
+import java.util.List;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import io.github.augustoravazoli.bankapi.RetryExecutor;
+import io.github.augustoravazoli.bankapi.account.AccountRepository;
+import io.github.augustoravazoli.bankapi.account.AccountsRemovedEvent;
+import io.micrometer.core.annotation.Timed;
 
+@Timed("bankapi.service")
 @Service
 class CustomerService {
 
   private final CustomerRepository customerRepository;
+  private final RetryExecutor retryExecutor;
+  private final CustomerCache customerCache;
+  private final CustomerKeyFilter customerKeyFilter;
+  private final AccountRepository accountRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Autowired
-  public CustomerService(CustomerRepository customerRepository) {
+  public CustomerService(
+    CustomerRepository customerRepository,
+    RetryExecutor retryExecutor,
+    CustomerCache customerCache,
+    CustomerKeyFilter customerKeyFilter,
+    AccountRepository accountRepository,
+    ApplicationEventPublisher eventPublisher
+  ) {
     this.customerRepository = customerRepository;
+    this.retryExecutor = retryExecutor;
+    this.customerCache = customerCache;
+    this.customerKeyFilter = customerKeyFilter;
+    this.accountRepository = accountRepository;
+    this.eventPublisher = eventPublisher;
   }
 
   public Customer createCustomer(Customer newCustomer) {
-    if (customerRepository.existsByEmail(newCustomer.getEmail())) {
+    // a filter hit may be a false positive, so it's confirmed before rejecting
+    var email = newCustomer.getEmail();
+    if (customerKeyFilter.mightContainEmail(email) && customerRepository.existsByEmail(email)) {
       throw new EmailTakenException();
     }
-    if (customerRepository.existsByCpf(newCustomer.getCpf())) {
+    var cpf = newCustomer.getCpf();
+    if (customerKeyFilter.mightContainCpf(cpf) && customerRepository.existsByCpf(cpf)) {
       throw new CpfTakenException();
     }
-    return customerRepository.save(newCustomer);
+    var savedCustomer = saveUnique(newCustomer);
+    customerKeyFilter.add(email, cpf);
+    return savedCustomer;
   }
 
   public Customer findCustomer(String cpf) {
@@ -29,24 +60,58 @@ class CustomerService {
   }
 
   public Customer editCustomer(String cpf, Customer newCustomer) {
-    var customer = getCustomerByCpf(cpf);
-    var emailExists = customerRepository.existsByEmail(newCustomer.getEmail());
-    var emailChanged = !customer.getEmail().equals(newCustomer.getEmail());
-    if (emailChanged && emailExists) {
-      throw new EmailTakenException();
-    }
-    customer.setName(newCustomer.getName());
-    customer.setEmail(newCustomer.getEmail());
-    customer.setBirthDate(newCustomer.getBirthDate());
-    return customerRepository.save(customer);
+    var editedCustomer = retryExecutor.execute(() -> {
+      var customer = getCustomerByCpf(cpf);
+      var emailExists = customerRepository.existsByEmail(newCustomer.getEmail());
+      var emailChanged = !customer.getEmail().equals(newCustomer.getEmail());
+      if (emailChanged && emailExists) {
+        throw new EmailTakenException();
+      }
+      customer.setName(newCustomer.getName());
+      customer.setEmail(newCustomer.getEmail());
+      customer.setBirthDate(newCustomer.getBirthDate());
+      return saveUnique(customer);
+    });
+    customerKeyFilter.addEmail(editedCustomer.getEmail());
+    customerCache.evict(cpf);
+    return editedCustomer;
   }
 
+  // a few set based statements whatever the number of accounts, their history is purged afterwards
   @Transactional
   public void removeCustomer(String cpf) {
-    if (!customerRepository.existsByCpf(cpf)) {
-      throw new CustomerNotFoundException();
+    var customerId = customerRepository
+      .lockIdByCpf(cpf)
+      .orElseThrow(CustomerNotFoundException::new);
+    var accountIds = accountRepository.findIdsByOwnerId(customerId);
+    accountRepository.deleteAllByOwnerIdInBulk(customerId);
+    customerRepository.deleteAllByIdInBatch(List.of(customerId));
+    eventPublisher.publishEvent(new AccountsRemovedEvent(accountIds));
+    customerCache.evict(cpf);
+  }
+
+  private Customer saveUnique(Customer customer) {
+    try {
+      return customerRepository.save(customer);
+    } catch (DataIntegrityViolationException ex) {
+      throw toTakenException(ex);
+    }
+  }
+
+  private static RuntimeException toTakenException(DataIntegrityViolationException ex) {
+    if (!(ex.getCause() instanceof ConstraintViolationException violation)
+      || violation.getConstraintName() == null) {
+      return ex;
+    }
+    // postgres reports the bare name, h2 wraps it in the index description
+    var constraintName = violation.getConstraintName().toLowerCase();
+    if (constraintName.contains(Customer.EMAIL_CONSTRAINT)) {
+      return new EmailTakenException();
+    }
+    if (constraintName.contains(Customer.CPF_CONSTRAINT)) {
+      return new CpfTakenException();
     }
-    customerRepository.deleteByCpf(cpf);
+    return ex;
   }
 
   private Customer getCustomerByCpf(String cpf) {
@@ -0,0 +1,17 @@
+package io.github.augustoravazoli.bankapi.customer;
+
+import java.time.LocalDate;
+
+public record CustomerSnapshot(Long id, String name, String email, String cpf, LocalDate birthDate) {
+
+  public static CustomerSnapshot of(Customer customer) {
+    return new CustomerSnapshot(
+      customer.getId(),
+      customer.getName(),
+      customer.getEmail(),
+      customer.getCpf(),
+      customer.getBirthDate()
+    );
+  }
+
+}
@@ -0,0 +1,12 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
+import org.springframework.web.server.ResponseStatusException;
+
+class BalanceOverflowException extends ResponseStatusException {
+
+  public BalanceOverflowException() {
+    super(UNPROCESSABLE_ENTITY, "balance limit exceeded");
+  }
+
+}
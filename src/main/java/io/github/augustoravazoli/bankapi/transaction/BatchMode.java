@@ -0,0 +1,6 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+enum BatchMode {
+  ALL_OR_NOTHING,
+  BEST_EFFORT
+}
@@ -0,0 +1,19 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.util.List;
+
+record BatchResult(boolean committed, List<Item> items) {
+
+  static record Item(int index, Transaction transaction, String error) {
+
+    static Item applied(int index, Transaction transaction) {
+      return new Item(index, transaction, null);
+    }
+
+    static Item failed(int index, String error) {
+      return new Item(index, null, error);
+    }
+
+  }
+
+}
@@ -0,0 +1,25 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.github.augustoravazoli.bankapi.Money;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record BatchTransactionItem(
+
+  @NotNull
+  TransactionType type,
+
+  @Positive
+  @DecimalMax(TransactionRequest.MAX_AMOUNT)
+  @NotNull
+  Money amount,
+
+  @NotNull
+  Long originAccountId,
+
+  Long destinationAccountId
+
+) {}
@@ -0,0 +1,18 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.util.List;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+record BatchTransactionRequest(
+
+  @NotNull
+  BatchMode mode,
+
+  @NotEmpty
+  @Size(max = 5000)
+  List<@Valid @NotNull BatchTransactionItem> items
+
+) {}
@@ -0,0 +1,11 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.util.List;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+record BatchTransactionResponse(boolean committed, List<Item> items) {
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  static record Item(int index, TransactionResponse transaction, String error) {}
+
+}
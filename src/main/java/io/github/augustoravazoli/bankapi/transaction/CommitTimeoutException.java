@@ -0,0 +1,13 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import org.springframework.web.server.ResponseStatusException;
+
+// the group may still commit after the wait gave up, a retry is only safe with the same idempotency key
+class CommitTimeoutException extends ResponseStatusException {
+
+  public CommitTimeoutException() {
+    super(SERVICE_UNAVAILABLE, "transaction wasn't committed in time");
+  }
+
+}
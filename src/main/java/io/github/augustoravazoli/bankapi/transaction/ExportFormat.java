@@ -0,0 +1,20 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import org.springframework.http.MediaType;
+
+enum ExportFormat {
+
+  NDJSON(MediaType.APPLICATION_NDJSON),
+  CSV(new MediaType("text", "csv"));
+
+  private final MediaType mediaType;
+
+  ExportFormat(MediaType mediaType) {
+    this.mediaType = mediaType;
+  }
+
+  public MediaType getMediaType() {
+    return mediaType;
+  }
+
+}
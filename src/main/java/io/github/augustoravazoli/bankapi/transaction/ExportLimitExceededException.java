@@ -0,0 +1,12 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+import org.springframework.web.server.ResponseStatusException;
+
+class ExportLimitExceededException extends ResponseStatusException {
+
+  public ExportLimitExceededException() {
+    super(TOO_MANY_REQUESTS, "too many exports running, try again later");
+  }
+
+}
@@ -0,0 +1,12 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
+import org.springframework.web.server.ResponseStatusException;
+
+class IdempotencyKeyReusedException extends ResponseStatusException {
+
+  public IdempotencyKeyReusedException() {
+    super(UNPROCESSABLE_ENTITY, "idempotency key already used for a different request");
+  }
+
+}
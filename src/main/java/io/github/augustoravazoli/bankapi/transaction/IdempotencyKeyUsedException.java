@@ -0,0 +1,19 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import static org.springframework.http.HttpStatus.CONFLICT;
+import org.springframework.web.server.ResponseStatusException;
+
+class IdempotencyKeyUsedException extends ResponseStatusException {
+
+  private final Transaction storedTransaction;
+
+  public IdempotencyKeyUsedException(Transaction storedTransaction) {
+    super(CONFLICT, "idempotency key already used");
+    this.storedTransaction = storedTransaction;
+  }
+
+  public Transaction getStoredTransaction() {
+    return storedTransaction;
+  }
+
+}
@@ -0,0 +1,7 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bankapi.transactions.idempotency")
+record IdempotencyProperties(int maxKeys, Duration ttl) {}
@@ -0,0 +1,157 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import io.github.augustoravazoli.bankapi.Money;
+
+@Component
+class IdempotencyStore {
+
+  static record Outcome(Transaction transaction, boolean replayed) {}
+
+  // what a retry has to repeat, 10 and 10.00 parse to the same Money so they are the same request
+  private static record Fingerprint(
+    TransactionType type,
+    Money amount,
+    Long originAccountId,
+    Long destinationAccountId
+  ) {
+
+    static Fingerprint of(TransactionType type, Transaction transaction) {
+      return new Fingerprint(
+        type,
+        transaction.getAmount(),
+        transaction.getOriginAccountId(),
+        transaction.getDestinationAccountId()
+      );
+    }
+
+  }
+
+  private static record Entry(Fingerprint fingerprint, CompletableFuture<Transaction> result, long expiresAt) {}
+
+  private final TransactionRepository transactionRepository;
+  private final int maxKeys;
+  private final long ttl;
+  private final Clock clock;
+
+  // every entry lives for the same ttl, so insertion order is also expiration order
+  private final Map<String, Entry> entries = new LinkedHashMap<>();
+  private final ReentrantLock lock = new ReentrantLock();
+
+  @Autowired
+  public IdempotencyStore(TransactionRepository transactionRepository, IdempotencyProperties properties) {
+    this(transactionRepository, properties, Clock.systemUTC());
+  }
+
+  IdempotencyStore(TransactionRepository transactionRepository, IdempotencyProperties properties, Clock clock) {
+    this.transactionRepository = transactionRepository;
+    this.maxKeys = properties.maxKeys();
+    this.ttl = properties.ttl().toMillis();
+    this.clock = clock;
+  }
+
+  public Outcome execute(
+    String key,
+    TransactionType type,
+    Transaction newTransaction,
+    UnaryOperator<Transaction> create
+  ) {
+    var fingerprint = Fingerprint.of(type, newTransaction);
+    var entry = new Entry(fingerprint, new CompletableFuture<>(), clock.millis() + ttl);
+    var existing = putIfAbsent(key, entry);
+    if (existing != null) {
+      // a retry of a request that's still running waits for its result
+      validateFingerprint(existing.fingerprint(), fingerprint);
+      return new Outcome(await(existing.result()), true);
+    }
+    try {
+      var outcome = createOnce(key, fingerprint, newTransaction, create);
+      entry.result().complete(outcome.transaction());
+      return outcome;
+    } catch (RuntimeException ex) {
+      // failed requests aren't remembered, nothing was stored so a retry runs again
+      remove(key, entry);
+      entry.result().completeExceptionally(ex);
+      throw ex;
+    }
+  }
+
+  // the service checks the key in the same db transaction that stores it, so the request thread
+  // only looks the key up itself when another instance stored it concurrently
+  private Outcome createOnce(
+    String key,
+    Fingerprint fingerprint,
+    Transaction newTransaction,
+    UnaryOperator<Transaction> create
+  ) {
+    newTransaction.setIdempotencyKey(key);
+    Transaction storedTransaction;
+    try {
+      return new Outcome(create.apply(newTransaction), false);
+    } catch (IdempotencyKeyUsedException ex) {
+      storedTransaction = ex.getStoredTransaction();
+    } catch (DataIntegrityViolationException ex) {
+      storedTransaction = transactionRepository.findByIdempotencyKey(key).orElseThrow(() -> ex);
+    }
+    validateFingerprint(Fingerprint.of(storedTransaction.getType(), storedTransaction), fingerprint);
+    return new Outcome(storedTransaction, true);
+  }
+
+  private Entry putIfAbsent(String key, Entry entry) {
+    lock.lock();
+    try {
+      var now = clock.millis();
+      var iterator = entries.values().iterator();
+      while (iterator.hasNext() && iterator.next().expiresAt() <= now) {
+        iterator.remove();
+      }
+      var existing = entries.get(key);
+      if (existing != null) {
+        return existing;
+      }
+      entries.put(key, entry);
+      if (entries.size() > maxKeys) {
+        entries.remove(entries.keySet().iterator().next());
+      }
+      return null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void remove(String key, Entry entry) {
+    lock.lock();
+    try {
+      entries.remove(key, entry);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void validateFingerprint(Fingerprint stored, Fingerprint requested) {
+    if (!stored.equals(requested)) {
+      throw new IdempotencyKeyReusedException();
+    }
+  }
+
+  private Transaction await(CompletableFuture<Transaction> result) {
+    try {
+      return result.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw ex;
+    }
+  }
+
+}
@@ -0,0 +1,12 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
+import org.springframework.web.server.ResponseStatusException;
+
+class InvalidCursorException extends ResponseStatusException {
+
+  public InvalidCursorException() {
+    super(UNPROCESSABLE_ENTITY, "invalid cursor");
+  }
+
+}
@@ -0,0 +1,38 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import io.github.augustoravazoli.bankapi.SnowflakeIdGenerator;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Mono;
+
+@ConditionalOnProperty(name = "bankapi.transactions.reactive", havingValue = "true")
+@Configuration(proxyBeanMethods = false)
+class ReactiveTransactionConfiguration {
+
+  // the R2DBC transaction manager stays out of the context, JPA keeps owning @Transactional
+  @Bean
+  public TransactionalOperator reactiveTransactionalOperator(ConnectionFactory connectionFactory) {
+    return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+  }
+
+  // same generator Hibernate uses, the table has no identity column to fall back on
+  @Bean
+  public BeforeConvertCallback<Transaction> transactionIdCallback(
+    @Value("${bankapi.ids.node-id}") int nodeId
+  ) {
+    var generator = SnowflakeIdGenerator.shared(nodeId);
+    return (transaction, table) -> {
+      if (transaction.getId() == null) {
+        transaction.setId(generator.nextId());
+      }
+      return Mono.just(transaction);
+    };
+  }
+
+}
@@ -0,0 +1,101 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import jakarta.validation.Valid;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves the keyless transaction POSTs and the paged history without blocking.
+ * Its mappings are narrower than the matching ones of
+ * {@link TransactionController}, which stays registered, so they win where both
+ * apply and the blocking controller keeps the endpoints this pipeline doesn't
+ * implement: Idempotency-Key requests, batch, export, statement and cursors.
+ */
+@ConditionalOnProperty(name = "bankapi.transactions.reactive", havingValue = "true")
+@Validated
+@RequestMapping("/api/v1/transactions")
+@Controller
+class ReactiveTransactionController {
+
+  private final ReactiveTransactionService transactionService;
+  private final TransactionMapper transactionMapper;
+
+  @Autowired
+  public ReactiveTransactionController(
+    ReactiveTransactionService transactionService,
+    TransactionMapper transactionMapper
+  ) {
+    this.transactionService = transactionService;
+    this.transactionMapper = transactionMapper;
+  }
+
+  @Validated(OnDepositOrWithdraw.class)
+  @PostMapping(path = "/deposits", headers = "!" + TransactionController.IDEMPOTENCY_KEY)
+  public Mono<ResponseEntity<TransactionResponse>> createDepositTransaction(
+    @Valid @RequestBody TransactionRequest newTransaction
+  ) {
+    return createTransaction(newTransaction, TransactionType.DEPOSIT);
+  }
+
+  @Validated(OnDepositOrWithdraw.class)
+  @PostMapping(path = "/withdrawals", headers = "!" + TransactionController.IDEMPOTENCY_KEY)
+  public Mono<ResponseEntity<TransactionResponse>> createWithdrawalTransaction(
+    @Valid @RequestBody TransactionRequest newTransaction
+  ) {
+    return createTransaction(newTransaction, TransactionType.WITHDRAWAL);
+  }
+
+  @Validated(OnTransfer.class)
+  @PostMapping(path = "/transfers", headers = "!" + TransactionController.IDEMPOTENCY_KEY)
+  public Mono<ResponseEntity<TransactionResponse>> createTransferTransaction(
+    @Valid @RequestBody TransactionRequest newTransaction
+  ) {
+    return createTransaction(newTransaction, TransactionType.TRANSFER);
+  }
+
+  private Mono<ResponseEntity<TransactionResponse>> createTransaction(
+    TransactionRequest newTransaction,
+    TransactionType transactionType
+  ) {
+    var locationBuilder = ServletUriComponentsBuilder
+      .fromCurrentRequest()
+      .path("/{id}");
+    var transaction = transactionMapper.toEntity(newTransaction);
+    var savedTransaction = switch (transactionType) {
+      case DEPOSIT -> transactionService.createDepositTransaction(transaction);
+      case WITHDRAWAL -> transactionService.createWithdrawalTransaction(transaction);
+      case TRANSFER -> transactionService.createTransferTransaction(transaction);
+    };
+    return savedTransaction
+      .map(transactionMapper::toResponse)
+      .map(createdTransaction -> {
+        var location = locationBuilder.buildAndExpand(createdTransaction.id()).toUri();
+        return ResponseEntity.created(location).body(createdTransaction);
+      });
+  }
+
+  @GetMapping(params = {"page", "size"})
+  public Mono<ResponseEntity<List<TransactionResponse>>> findAllTransactions(
+    @RequestParam(name = "account-id") long accountId,
+    @RequestParam(name = "page") int page,
+    @RequestParam(name = "size") int size
+  ) {
+    return transactionService
+      .findAllTransactions(accountId, page, size)
+      .map(transactionMapper::toResponse)
+      .collectList()
+      .map(findedTransactions -> ResponseEntity.ok().body(findedTransactions));
+  }
+
+}
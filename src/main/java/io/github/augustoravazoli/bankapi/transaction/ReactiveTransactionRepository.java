@@ -0,0 +1,13 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+interface ReactiveTransactionRepository extends R2dbcRepository<Transaction, Long> {
+
+  Flux<Transaction> findAllByOriginAccountId(long accountId, Pageable pageable);
+
+}
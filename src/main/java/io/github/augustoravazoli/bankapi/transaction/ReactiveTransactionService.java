@@ -0,0 +1,105 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import io.github.augustoravazoli.bankapi.Money;
+import io.github.augustoravazoli.bankapi.account.InsufficientBalanceException;
+import io.github.augustoravazoli.bankapi.account.ReactiveAccountRepository;
+import io.github.augustoravazoli.bankapi.account.ReactiveLedger;
+import io.github.augustoravazoli.bankapi.account.SelfTransferException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@ConditionalOnProperty(name = "bankapi.transactions.reactive", havingValue = "true")
+@Service
+class ReactiveTransactionService {
+
+  private final ReactiveTransactionRepository transactionRepository;
+  private final ReactiveAccountRepository accountRepository;
+  private final ReactiveLedger ledger;
+  private final TransactionalOperator transactionalOperator;
+
+  @Autowired
+  public ReactiveTransactionService(
+    ReactiveTransactionRepository transactionRepository,
+    ReactiveAccountRepository accountRepository,
+    ReactiveLedger ledger,
+    TransactionalOperator reactiveTransactionalOperator
+  ) {
+    this.transactionRepository = transactionRepository;
+    this.accountRepository = accountRepository;
+    this.ledger = ledger;
+    this.transactionalOperator = reactiveTransactionalOperator;
+  }
+
+  public Mono<Transaction> createDepositTransaction(Transaction newTransaction) {
+    newTransaction.setType(TransactionType.DEPOSIT);
+    return validateAccountExists(newTransaction.getOriginAccountId(), "origin")
+      .then(Mono.defer(() -> saveAndPost(newTransaction)))
+      .as(transactionalOperator::transactional);
+  }
+
+  public Mono<Transaction> createWithdrawalTransaction(Transaction newTransaction) {
+    newTransaction.setType(TransactionType.WITHDRAWAL);
+    return lockOriginBalance(newTransaction.getOriginAccountId())
+      .flatMap(balance -> validateBalance(balance, newTransaction.getAmount()))
+      .then(Mono.defer(() -> saveAndPost(newTransaction)))
+      .as(transactionalOperator::transactional);
+  }
+
+  public Mono<Transaction> createTransferTransaction(Transaction newTransaction) {
+    var originId = newTransaction.getOriginAccountId();
+    var destinationId = newTransaction.getDestinationAccountId();
+    if (originId.equals(destinationId)) {
+      return Mono.error(new SelfTransferException());
+    }
+    newTransaction.setType(TransactionType.TRANSFER);
+    // only the debited account is locked, the destination just gets a credit entry
+    return lockOriginBalance(originId)
+      .flatMap(balance -> validateAccountExists(destinationId, "destination")
+        .then(validateBalance(balance, newTransaction.getAmount()))
+      )
+      .then(Mono.defer(() -> saveAndPost(newTransaction)))
+      .as(transactionalOperator::transactional);
+  }
+
+  public Flux<Transaction> findAllTransactions(long accountId, int page, int size) {
+    var currentPage = PageRequest.of(page, size, Sort.by("id").ascending());
+    return transactionRepository.findAllByOriginAccountId(accountId, currentPage);
+  }
+
+  private Mono<Transaction> saveAndPost(Transaction newTransaction) {
+    return transactionRepository
+      .save(newTransaction)
+      .flatMap(savedTransaction -> ledger
+        .post(TransactionService.toPosting(savedTransaction))
+        .thenReturn(savedTransaction)
+      );
+  }
+
+  private Mono<Money> lockOriginBalance(long accountId) {
+    return ledger
+      .lockAvailableBalance(accountId)
+      .switchIfEmpty(Mono.error(() -> new InvalidAccountException("origin account doesn't exists")));
+  }
+
+  private Mono<Void> validateBalance(Money balance, Money amount) {
+    return balance.isLessThan(amount)
+      ? Mono.error(new InsufficientBalanceException())
+      : Mono.empty();
+  }
+
+  private Mono<Void> validateAccountExists(long accountId, String accountRole) {
+    return accountRepository
+      .existsById(accountId)
+      .flatMap(exists -> exists
+        ? Mono.empty()
+        : Mono.error(new InvalidAccountException(accountRole + " account doesn't exists"))
+      );
+  }
+
+}
@@ -0,0 +1,11 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.util.List;
+
+record Statement(List<StatementEntry> entries, StatementCursor next) {
+
+  boolean hasNext() {
+    return next != null;
+  }
+
+}
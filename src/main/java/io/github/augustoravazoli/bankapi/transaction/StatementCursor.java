@@ -0,0 +1,15 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import io.github.augustoravazoli.bankapi.Money;
+
+/**
+ * Position in an account statement. Carries the running balance up to that
+ * position, so the next page goes on from it instead of summing every
+ * earlier row again. It leaves the server signed by {@link StatementCursorCodec},
+ * the balance can't be taken from the client.
+ */
+record StatementCursor(long transactionId, Money balance) {
+
+  static final StatementCursor START = new StatementCursor(0L, Money.ZERO);
+
+}
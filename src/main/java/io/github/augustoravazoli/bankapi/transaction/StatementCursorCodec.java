@@ -0,0 +1,84 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import io.github.augustoravazoli.bankapi.Money;
+
+@Component
+class StatementCursorCodec {
+
+  private static final String ALGORITHM = "HmacSHA256";
+  private static final int PAYLOAD_BYTES = 3 * Long.BYTES;
+  private static final int MIN_SECRET_BYTES = 32;
+
+  private final SecretKeySpec key;
+
+  // every instance must share the secret, a cursor is followed on whichever one gets the next request
+  @Autowired
+  public StatementCursorCodec(@Value("${bankapi.transactions.statement.cursor-secret}") String secret) {
+    var bytes = secret.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length < MIN_SECRET_BYTES) {
+      throw new IllegalArgumentException(
+        "bankapi.transactions.statement.cursor-secret must be at least " + MIN_SECRET_BYTES + " bytes"
+      );
+    }
+    this.key = new SecretKeySpec(bytes, ALGORITHM);
+  }
+
+  // the account is signed along, a cursor only continues the statement it came from
+  public String encode(long accountId, StatementCursor cursor) {
+    var payload = ByteBuffer.allocate(PAYLOAD_BYTES)
+      .putLong(accountId)
+      .putLong(cursor.transactionId())
+      .putLong(cursor.balance().minorUnits())
+      .array();
+    var signature = sign(payload);
+    var bytes = Arrays.copyOf(payload, PAYLOAD_BYTES + signature.length);
+    System.arraycopy(signature, 0, bytes, PAYLOAD_BYTES, signature.length);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  // a cursor that wasn't signed here, was changed after, or belongs to another account's statement
+  // is rejected like a malformed one
+  public StatementCursor decode(long accountId, String cursor) {
+    try {
+      var bytes = Base64.getUrlDecoder().decode(cursor);
+      if (bytes.length <= PAYLOAD_BYTES) {
+        throw new InvalidCursorException();
+      }
+      var payload = Arrays.copyOf(bytes, PAYLOAD_BYTES);
+      var signature = Arrays.copyOfRange(bytes, PAYLOAD_BYTES, bytes.length);
+      if (!MessageDigest.isEqual(sign(payload), signature)) {
+        throw new InvalidCursorException();
+      }
+      var buffer = ByteBuffer.wrap(payload);
+      if (buffer.getLong() != accountId) {
+        throw new InvalidCursorException();
+      }
+      return new StatementCursor(buffer.getLong(), Money.ofMinorUnits(buffer.getLong()));
+    } catch (IllegalArgumentException | ArithmeticException ex) {
+      throw new InvalidCursorException();
+    }
+  }
+
+  // a Mac isn't thread safe, each signature gets its own
+  private byte[] sign(byte[] payload) {
+    try {
+      var mac = Mac.getInstance(ALGORITHM);
+      mac.init(key);
+      return mac.doFinal(payload);
+    } catch (GeneralSecurityException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+}
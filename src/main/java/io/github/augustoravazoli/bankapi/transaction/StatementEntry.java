@@ -0,0 +1,28 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.time.LocalDate;
+import io.github.augustoravazoli.bankapi.Money;
+
+record StatementEntry(
+  Long id,
+  TransactionType type,
+  Money amount,
+  Money balance,
+  LocalDate date,
+  Long originAccountId,
+  Long destinationAccountId
+) {
+
+  StatementEntry(StatementRow row, Money balance) {
+    this(
+      row.getId(),
+      row.getType(),
+      Money.ofMinorUnits(row.getAmount()),
+      balance,
+      row.getDate(),
+      row.getOriginAccountId(),
+      row.getDestinationAccountId()
+    );
+  }
+
+}
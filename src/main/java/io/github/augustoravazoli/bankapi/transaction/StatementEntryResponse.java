@@ -0,0 +1,20 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.time.LocalDate;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.github.augustoravazoli.bankapi.Money;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record StatementEntryResponse(
+  @JsonFormat(shape = JsonFormat.Shape.STRING)
+  Long id,
+  TransactionType type,
+  Money amount,
+  Money balance,
+  LocalDate date,
+  @JsonFormat(shape = JsonFormat.Shape.STRING)
+  Long originAccountId,
+  @JsonFormat(shape = JsonFormat.Shape.STRING)
+  Long destinationAccountId
+) {}
@@ -0,0 +1,20 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.time.LocalDate;
+
+interface StatementRow {
+
+  Long getId();
+
+  TransactionType getType();
+
+  // minor units, native projections bypass the Money converter
+  long getAmount();
+
+  LocalDate getDate();
+
+  Long getOriginAccountId();
+
+  Long getDestinationAccountId();
+
+}
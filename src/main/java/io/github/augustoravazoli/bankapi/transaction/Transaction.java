@@ -1,27 +1,36 @@
 package io.github.augustoravazoli.bankapi.transaction;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import static jakarta.persistence.EnumType.STRING;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import static jakarta.persistence.GenerationType.IDENTITY;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.Positive;
 import io.github.augustoravazoli.bankapi.Application.Default;
+import io.github.augustoravazoli.bankapi.Money;
+import io.github.augustoravazoli.bankapi.SnowflakeId;
 
 @Entity
+@Table(indexes = {
+  @Index(name = "transaction_origin_account_id_id_idx", columnList = "originAccountId, id"),
+  @Index(name = "transaction_destination_account_id_id_idx", columnList = "destinationAccountId, id"),
+  @Index(name = "transaction_origin_account_id_date_idx", columnList = "originAccountId, date"),
+  @Index(name = "transaction_destination_account_id_date_idx", columnList = "destinationAccountId, date"),
+  @Index(name = "transaction_date_idx", columnList = "date")
+})
 class Transaction {
 
   @Id
-  @GeneratedValue(strategy = IDENTITY)
+  @org.springframework.data.annotation.Id
+  @SnowflakeId
   private Long id;
 
   @Positive
   @Column(nullable = false)
-  private BigDecimal amount;
+  private Money amount;
 
   @Enumerated(STRING)
   @Column(nullable = false)
@@ -35,12 +44,16 @@ class Transaction {
 
   private Long destinationAccountId;
 
+  // client supplied, the unique constraint stops a retried request from being stored twice
+  @Column(unique = true)
+  private String idempotencyKey;
+
   public Transaction() {}
 
   @Default
   public Transaction(
     Long id,
-    BigDecimal amount,
+    Money amount,
     TransactionType type,
     Long originAccountId,
     Long destinationAccountId
@@ -57,6 +70,10 @@ class Transaction {
     return id;
   }
 
+  public void setId(Long id) {
+    this.id = id;
+  }
+
   public TransactionType getType() {
     return type;
   }
@@ -65,7 +82,7 @@ class Transaction {
     this.type = type;
   }
 
-  public BigDecimal getAmount() {
+  public Money getAmount() {
     return amount;
   }
 
@@ -81,4 +98,12 @@ class Transaction {
     return destinationAccountId;
   }
 
+  public String getIdempotencyKey() {
+    return idempotencyKey;
+  }
+
+  public void setIdempotencyKey(String idempotencyKey) {
+    this.idempotencyKey = idempotencyKey;
+  }
+
 }
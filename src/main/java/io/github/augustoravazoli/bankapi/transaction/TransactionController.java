@@ -1,82 +1,140 @@
 package io.github.augustoravazoli.bankapi.transaction;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import static org.springframework.http.HttpHeaders.LINK;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 
 @Validated
 @RequestMapping("/api/v1/transactions")
 @Controller
 class TransactionController {
 
+  static final String NEXT_CURSOR = "X-Next-Cursor";
+  static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+  static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+  // a cursor page is read into memory at once, so its size is bounded
+  static final int MAX_PAGE_SIZE = 1000;
+
+  private static final String EXPORT_INTERCEPTOR = TransactionController.class.getName() + ".EXPORT_INTERCEPTOR";
+
   private final TransactionService transactionService;
   private final TransactionMapper transactionMapper;
+  private final TransactionExporter transactionExporter;
+  private final IdempotencyStore idempotencyStore;
+  private final StatementCursorCodec statementCursorCodec;
+  private final Duration exportTimeout;
+  private final Semaphore exportPermits;
 
   @Autowired
   public TransactionController(
     TransactionService transactionService,
-    TransactionMapper transactionMapper
+    TransactionMapper transactionMapper,
+    TransactionExporter transactionExporter,
+    IdempotencyStore idempotencyStore,
+    StatementCursorCodec statementCursorCodec,
+    @Value("${bankapi.transactions.export.timeout}") Duration exportTimeout,
+    @Value("${bankapi.transactions.export.max-concurrent}") int maxConcurrentExports
   ) {
     this.transactionService = transactionService;
     this.transactionMapper = transactionMapper;
+    this.transactionExporter = transactionExporter;
+    this.idempotencyStore = idempotencyStore;
+    this.statementCursorCodec = statementCursorCodec;
+    this.exportTimeout = exportTimeout;
+    this.exportPermits = new Semaphore(maxConcurrentExports);
   }
 
   @Validated(OnDepositOrWithdraw.class)
   @PostMapping("/deposits")
   public ResponseEntity<TransactionResponse> createDepositTransaction(
-    @Valid @RequestBody TransactionRequest newTransaction
-  ) { 
-    var savedTransaction = createTransaction(newTransaction, TransactionType.DEPOSIT);
-    var location = getLocation(savedTransaction.id());
-    return ResponseEntity.created(location).body(savedTransaction);
+    @Valid @RequestBody TransactionRequest newTransaction,
+    @Size(max = 255, groups = { OnDepositOrWithdraw.class, OnTransfer.class })
+    @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey
+  ) {
+    return createTransaction(newTransaction, TransactionType.DEPOSIT, idempotencyKey);
   }
 
   @Validated(OnDepositOrWithdraw.class)
   @PostMapping("/withdrawals")
   public ResponseEntity<TransactionResponse> createWithdrawalTransaction(
-    @Valid @RequestBody TransactionRequest newTransaction
+    @Valid @RequestBody TransactionRequest newTransaction,
+    @Size(max = 255, groups = { OnDepositOrWithdraw.class, OnTransfer.class })
+    @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey
   ) {
-    var savedTransaction = createTransaction(newTransaction, TransactionType.WITHDRAWAL);
-    var location = getLocation(savedTransaction.id());
-    return ResponseEntity.created(location).body(savedTransaction);
+    return createTransaction(newTransaction, TransactionType.WITHDRAWAL, idempotencyKey);
   }
 
   @Validated(OnTransfer.class)
   @PostMapping("/transfers")
   public ResponseEntity<TransactionResponse> createTransferTransaction(
-    @Valid @RequestBody TransactionRequest newTransaction
+    @Valid @RequestBody TransactionRequest newTransaction,
+    @Size(max = 255, groups = { OnDepositOrWithdraw.class, OnTransfer.class })
+    @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey
   ) {
-    var savedTransaction = createTransaction(newTransaction, TransactionType.TRANSFER);
-    var location = getLocation(savedTransaction.id());
-    return ResponseEntity.created(location).body(savedTransaction);
+    return createTransaction(newTransaction, TransactionType.TRANSFER, idempotencyKey);
   }
 
-  private TransactionResponse createTransaction(
-    TransactionRequest newTransaction,
-    TransactionType transactionType
+  @PostMapping("/batch")
+  public ResponseEntity<BatchTransactionResponse> createBatchTransaction(
+    @Valid @RequestBody BatchTransactionRequest batch
   ) {
-    return Stream
-      .of(newTransaction)
+    var newTransactions = batch.items()
+      .stream()
       .map(transactionMapper::toEntity)
-      .map(switch (transactionType) {
-        case DEPOSIT -> transactionService::createDepositTransaction;
-        case WITHDRAWAL -> transactionService::createWithdrawalTransaction;
-        case TRANSFER -> transactionService::createTransferTransaction;
-      })
-      .map(transactionMapper::toResponse)
-      .findFirst()
-      .get();
+      .toList();
+    var result = transactionService.createBatchTransaction(newTransactions, batch.mode());
+    var response = transactionMapper.toResponse(result);
+    return result.committed()
+      ? ResponseEntity.ok().body(response)
+      : ResponseEntity.unprocessableEntity().body(response);
+  }
+
+  private ResponseEntity<TransactionResponse> createTransaction(
+    TransactionRequest newTransaction,
+    TransactionType transactionType,
+    String idempotencyKey
+  ) {
+    UnaryOperator<Transaction> create = switch (transactionType) {
+      case DEPOSIT -> transactionService::createDepositTransaction;
+      case WITHDRAWAL -> transactionService::createWithdrawalTransaction;
+      case TRANSFER -> transactionService::createTransferTransaction;
+    };
+    var transaction = transactionMapper.toEntity(newTransaction);
+    var outcome = idempotencyKey == null
+      ? new IdempotencyStore.Outcome(create.apply(transaction), false)
+      : idempotencyStore.execute(idempotencyKey, transactionType, transaction, create);
+    var savedTransaction = transactionMapper.toResponse(outcome.transaction());
+    var response = ResponseEntity.created(getLocation(savedTransaction.id()));
+    if (outcome.replayed()) {
+      response.header(IDEMPOTENT_REPLAYED, "true");
+    }
+    return response.body(savedTransaction);
   }
 
   private URI getLocation(long id) {
@@ -87,7 +145,7 @@ class TransactionController {
       .toUri();
   }
 
-  @GetMapping
+  @GetMapping(params = "page")
   public ResponseEntity<List<TransactionResponse>> findAllTransactions(
     @RequestParam(name = "account-id") long accountId,
     @RequestParam(name = "page") int page,
@@ -101,4 +159,100 @@ class TransactionController {
     return ResponseEntity.ok().body(findedTransactions);
   }
 
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportTransactions(
+    @RequestParam(name = "account-id") long accountId,
+    @RequestParam(name = "format", defaultValue = "NDJSON") ExportFormat format,
+    NativeWebRequest request
+  ) {
+    // an export holds a pooled connection until it's done, past the limit it's refused instead of
+    // leaving the other requests without connections
+    if (!exportPermits.tryAcquire()) {
+      throw new ExportLimitExceededException();
+    }
+    var permit = new AtomicBoolean(true);
+    Runnable releasePermit = () -> {
+      if (permit.getAndSet(false)) {
+        exportPermits.release();
+      }
+    };
+    WebAsyncUtils.getAsyncManager(request)
+      .registerCallableInterceptor(EXPORT_INTERCEPTOR, exportInterceptor(releasePermit));
+    return ResponseEntity.ok()
+      .contentType(format.getMediaType())
+      .body(out -> {
+        try {
+          transactionExporter.export(accountId, format, out);
+        } finally {
+          releasePermit.run();
+        }
+      });
+  }
+
+  @GetMapping("/statement")
+  public ResponseEntity<List<StatementEntryResponse>> findStatement(
+    @RequestParam(name = "account-id") long accountId,
+    @RequestParam(name = "after", required = false) String after,
+    @Positive @Max(MAX_PAGE_SIZE) @RequestParam(name = "size") int size
+  ) {
+    var cursor = after == null ? StatementCursor.START : statementCursorCodec.decode(accountId, after);
+    var statement = transactionService.findStatement(accountId, cursor, size);
+    var entries = statement.entries()
+      .stream()
+      .map(transactionMapper::toResponse)
+      .toList();
+    var response = ResponseEntity.ok();
+    if (statement.hasNext()) {
+      addNextLink(response, statementCursorCodec.encode(accountId, statement.next()));
+    }
+    return response.body(entries);
+  }
+
+  @GetMapping(params = "!page")
+  public ResponseEntity<List<TransactionResponse>> findTransactionsAfter(
+    @RequestParam(name = "account-id") long accountId,
+    @RequestParam(name = "after", required = false) String after,
+    @Positive @Max(MAX_PAGE_SIZE) @RequestParam(name = "size") int size
+  ) {
+    var afterId = after == null ? 0L : TransactionCursor.decode(after);
+    var slice = transactionService.findTransactionsAfter(accountId, afterId, size);
+    var findedTransactions = slice.transactions()
+      .stream()
+      .map(transactionMapper::toResponse)
+      .toList();
+    var response = ResponseEntity.ok();
+    if (slice.hasNext()) {
+      addNextLink(response, TransactionCursor.encode(slice.lastTransactionId()));
+    }
+    return response.body(findedTransactions);
+  }
+
+  private CallableProcessingInterceptor exportInterceptor(Runnable releasePermit) {
+    return new CallableProcessingInterceptor() {
+
+      // a whole history takes longer than other async requests are given, so only exports get a longer timeout
+      @Override
+      public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        ((AsyncWebRequest) request).setTimeout(exportTimeout.toMillis());
+      }
+
+      // an export that timed out or failed before it started writing never reaches its own release
+      @Override
+      public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+        releasePermit.run();
+      }
+
+    };
+  }
+
+  private void addNextLink(ResponseEntity.BodyBuilder response, String cursor) {
+    var next = ServletUriComponentsBuilder
+      .fromCurrentRequest()
+      .replaceQueryParam("after", cursor)
+      .toUriString();
+    response
+      .header(LINK, "<" + next + ">; rel=\"next\"")
+      .header(NEXT_CURSOR, cursor);
+  }
+
 }
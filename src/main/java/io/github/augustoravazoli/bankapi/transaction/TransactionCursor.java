@@ -0,0 +1,27 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+final class TransactionCursor {
+
+  private TransactionCursor() {}
+
+  public static String encode(long transactionId) {
+    var bytes = ByteBuffer.allocate(Long.BYTES).putLong(transactionId).array();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  public static long decode(String cursor) {
+    try {
+      var bytes = Base64.getUrlDecoder().decode(cursor);
+      if (bytes.length != Long.BYTES) {
+        throw new InvalidCursorException();
+      }
+      return ByteBuffer.wrap(bytes).getLong();
+    } catch (IllegalArgumentException ex) {
+      throw new InvalidCursorException();
+    }
+  }
+
+}
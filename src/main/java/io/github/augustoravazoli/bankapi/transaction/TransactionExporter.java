@@ -0,0 +1,107 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Writes an account's whole transaction history to a stream. Rows are read
+ * through a forward-only cursor and detached once written, so memory use
+ * doesn't grow with the history.
+ */
+@Component
+class TransactionExporter {
+
+  private static final String CSV_HEADER = "id,amount,type,date,originAccountId,destinationAccountId";
+
+  private final EntityManager entityManager;
+  private final TransactionTemplate readOnlyTransaction;
+  private final TransactionMapper transactionMapper;
+  private final ObjectWriter jsonWriter;
+  private final int fetchSize;
+
+  @Autowired
+  public TransactionExporter(
+    EntityManager entityManager,
+    PlatformTransactionManager transactionManager,
+    TransactionMapper transactionMapper,
+    ObjectMapper objectMapper,
+    @Value("${bankapi.transactions.export.fetch-size}") int fetchSize
+  ) {
+    this.entityManager = entityManager;
+    // the driver only honors the fetch size with auto-commit off
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.transactionMapper = transactionMapper;
+    this.jsonWriter = objectMapper.writerFor(TransactionResponse.class);
+    this.fetchSize = fetchSize;
+  }
+
+  public void export(long accountId, ExportFormat format, OutputStream out) throws IOException {
+    var writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8));
+    if (format == ExportFormat.CSV) {
+      writeLine(writer, CSV_HEADER);
+    }
+    readOnlyTransaction.executeWithoutResult(status -> {
+      var query = entityManager
+        .createQuery(
+          "SELECT t FROM Transaction t WHERE t.originAccountId = :accountId ORDER BY t.id",
+          Transaction.class
+        )
+        .setParameter("accountId", accountId)
+        .setHint(HINT_FETCH_SIZE, fetchSize)
+        .setHint(HINT_READ_ONLY, true);
+      try (var transactions = query.getResultStream()) {
+        transactions.forEach(transaction -> {
+          var response = transactionMapper.toResponse(transaction);
+          writeLine(writer, format == ExportFormat.CSV ? toCsv(response) : toJson(response));
+          entityManager.detach(transaction);
+        });
+      }
+    });
+    writer.flush();
+  }
+
+  private String toJson(TransactionResponse response) {
+    try {
+      return jsonWriter.writeValueAsString(response);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private static String toCsv(TransactionResponse response) {
+    return String.join(",",
+      response.id().toString(),
+      response.amount().toString(),
+      response.type().toString(),
+      response.date().toString(),
+      response.originAccountId().toString(),
+      response.destinationAccountId() == null ? "" : response.destinationAccountId().toString()
+    );
+  }
+
+  private static void writeLine(BufferedWriter writer, String line) {
+    try {
+      writer.write(line);
+      // newLine() would write the platform separator, NDJSON and CSV lines end with \n
+      writer.write('\n');
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+}
@@ -1,12 +1,25 @@
 package io.github.augustoravazoli.bankapi.transaction;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 interface TransactionMapper {
 
+  // the type comes from the endpoint and the key from the Idempotency-Key header, both set later
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "type", ignore = true)
+  @Mapping(target = "idempotencyKey", ignore = true)
   Transaction toEntity(TransactionRequest transaction);
 
   TransactionResponse toResponse(Transaction transaction);
 
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "idempotencyKey", ignore = true)
+  Transaction toEntity(BatchTransactionItem transaction);
+
+  BatchTransactionResponse toResponse(BatchResult result);
+
+  StatementEntryResponse toResponse(StatementEntry entry);
+
 }
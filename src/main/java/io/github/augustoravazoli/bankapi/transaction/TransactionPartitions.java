@@ -0,0 +1,168 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.server.ResponseStatusException;
+
+class TransactionPartitions implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(TransactionPartitions.class);
+
+  private static record Operation(Transaction transaction, CompletableFuture<Transaction> result) {}
+
+  private static final Operation STOP = new Operation(null, null);
+
+  private final Partition[] partitions;
+  private final int maxGroupSize;
+  private final long maxDelay;
+  private final long commitTimeout;
+  private final Function<List<Transaction>, List<ResponseStatusException>> committer;
+
+  // the committer writes a whole group in one db transaction and returns, for each transaction,
+  // why it was rejected or null when it was applied
+  public TransactionPartitions(
+    TransactionPartitionsProperties properties,
+    Function<List<Transaction>, List<ResponseStatusException>> committer
+  ) {
+    this.maxGroupSize = properties.maxGroupSize();
+    this.maxDelay = properties.maxDelay().toNanos();
+    this.commitTimeout = properties.commitTimeout().toNanos();
+    this.committer = committer;
+    this.partitions = new Partition[properties.count()];
+    for (int i = 0; i < partitions.length; i++) {
+      partitions[i] = new Partition("transaction-partition-" + i);
+    }
+  }
+
+  // completes only once the group holding the transaction is committed, or fails with a
+  // TimeoutException when that takes longer than the commit timeout
+  public CompletableFuture<Transaction> submit(Transaction transaction) {
+    var accountId = transaction.getOriginAccountId();
+    var partition = partitions[Math.floorMod(Long.hashCode(accountId), partitions.length)];
+    var result = new CompletableFuture<Transaction>();
+    partition.submitLock.lock();
+    try {
+      if (partition.closed) {
+        result.completeExceptionally(new IllegalStateException("transaction partitions are closed"));
+      } else {
+        partition.queue.add(new Operation(transaction, result));
+      }
+    } finally {
+      partition.submitLock.unlock();
+    }
+    return result.orTimeout(commitTimeout, TimeUnit.NANOSECONDS);
+  }
+
+  // everything submitted before closing is still committed
+  @Override
+  public void close() {
+    for (var partition : partitions) {
+      partition.submitLock.lock();
+      try {
+        partition.closed = true;
+        partition.queue.add(STOP);
+      } finally {
+        partition.submitLock.unlock();
+      }
+    }
+    for (var partition : partitions) {
+      try {
+        partition.thread.join();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private class Partition implements Runnable {
+
+    private final BlockingQueue<Operation> queue = new LinkedBlockingQueue<>();
+    private final ReentrantLock submitLock = new ReentrantLock();
+    private final Thread thread;
+    private boolean closed;
+
+    Partition(String name) {
+      thread = new Thread(this, name);
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    @Override
+    public void run() {
+      var group = new ArrayList<Operation>(maxGroupSize);
+      var running = true;
+      while (running) {
+        try {
+          running = collectGroup(group);
+        } catch (InterruptedException ex) {
+          running = false;
+        }
+        if (!group.isEmpty()) {
+          commit(group);
+          group.clear();
+        }
+      }
+    }
+
+    // waits for a first operation, then gathers more until the group is full or max delay passes
+    private boolean collectGroup(List<Operation> group) throws InterruptedException {
+      var first = queue.take();
+      if (first == STOP) {
+        return false;
+      }
+      addPending(group, first);
+      var deadline = System.nanoTime() + maxDelay;
+      while (group.size() < maxGroupSize) {
+        var next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        if (next == null) {
+          return true;
+        }
+        if (next == STOP) {
+          return false;
+        }
+        addPending(group, next);
+      }
+      return true;
+    }
+
+    // an operation that timed out while queued was already answered, it's dropped instead of
+    // being committed after its caller gave up on it
+    private void addPending(List<Operation> group, Operation operation) {
+      if (!operation.result().isDone()) {
+        group.add(operation);
+      }
+    }
+
+    private void commit(List<Operation> group) {
+      List<ResponseStatusException> failures;
+      try {
+        failures = committer.apply(group.stream().map(Operation::transaction).toList());
+      } catch (Throwable ex) {
+        // an error fails the group too, the partition thread goes on with the next one,
+        // otherwise every later operation on it would wait forever
+        logger.error("Couldn't commit a group of {} transactions", group.size(), ex);
+        group.forEach(operation -> operation.result().completeExceptionally(ex));
+        return;
+      }
+      for (int i = 0; i < group.size(); i++) {
+        var operation = group.get(i);
+        if (failures.get(i) == null) {
+          operation.result().complete(operation.transaction());
+        } else {
+          operation.result().completeExceptionally(failures.get(i));
+        }
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,72 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+import io.github.augustoravazoli.bankapi.account.AccountsRemovedEvent;
+
+/**
+ * Deletes the transactions of removed accounts in the background, one short
+ * transaction per chunk, so neither the removal nor the purge holds locks
+ * for long.
+ */
+@Component
+class TransactionPurger {
+
+  private static final Logger logger = LoggerFactory.getLogger(TransactionPurger.class);
+
+  private final TransactionRepository transactionRepository;
+  private final TransactionOperations transactionOperations;
+  private final AsyncTaskExecutor taskExecutor;
+  private final int chunkSize;
+
+  @Autowired
+  public TransactionPurger(
+    TransactionRepository transactionRepository,
+    TransactionOperations transactionOperations,
+    AsyncTaskExecutor applicationTaskExecutor,
+    @Value("${bankapi.transactions.purge.chunk-size}") int chunkSize
+  ) {
+    this.transactionRepository = transactionRepository;
+    this.transactionOperations = transactionOperations;
+    this.taskExecutor = applicationTaskExecutor;
+    this.chunkSize = chunkSize;
+  }
+
+  // only once the accounts are really gone, a rolled back removal purges nothing
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onAccountsRemoved(AccountsRemovedEvent event) {
+    if (!event.accountIds().isEmpty()) {
+      taskExecutor.execute(() -> purge(event.accountIds()));
+    }
+  }
+
+  public long purge(List<Long> accountIds) {
+    var purged = 0L;
+    try {
+      // a business customer may have thousands of accounts, so the id list is chunked too
+      for (int from = 0; from < accountIds.size(); from += chunkSize) {
+        var ids = accountIds.subList(from, Math.min(from + chunkSize, accountIds.size()));
+        // a self transfer matches both sides, so a short chunk doesn't mean the end
+        int deleted;
+        do {
+          deleted = transactionOperations.execute(
+            status -> transactionRepository.deleteOrphaned(ids, chunkSize)
+          );
+          purged += deleted;
+        } while (deleted > 0);
+      }
+      logger.info("Purged {} transactions of {} removed accounts", purged, accountIds.size());
+    } catch (RuntimeException ex) {
+      logger.warn("Couldn't purge the transactions of removed accounts {}", accountIds, ex);
+    }
+    return purged;
+  }
+
+}
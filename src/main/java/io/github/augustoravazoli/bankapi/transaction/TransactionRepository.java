@@ -1,13 +1,64 @@
 package io.github.augustoravazoli.bankapi.transaction;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
+  Optional<Transaction> findByIdempotencyKey(String idempotencyKey);
+
+  List<Transaction> findAllByIdempotencyKeyIn(Collection<String> idempotencyKeys);
+
   List<Transaction> findAllByOriginAccountId(long accountId, Pageable pageable);
 
+  List<Transaction> findAllByOriginAccountIdAndIdGreaterThan(long accountId, long id, Pageable pageable);
+
+  // each branch walks its own (account, id) index, the database merges them in id order
+  @Query(
+    value = "SELECT * FROM ("
+      + "SELECT t.id, t.type, CASE WHEN t.type = 'DEPOSIT' THEN t.amount ELSE -t.amount END AS amount, "
+      + "t.date, t.origin_account_id AS originAccountId, t.destination_account_id AS destinationAccountId "
+      + "FROM transaction t "
+      + "WHERE t.origin_account_id = :accountId AND t.id > :afterId "
+      + "UNION ALL "
+      + "SELECT t.id, t.type, t.amount, "
+      + "t.date, t.origin_account_id AS originAccountId, t.destination_account_id AS destinationAccountId "
+      + "FROM transaction t "
+      + "WHERE t.destination_account_id = :accountId AND t.id > :afterId"
+      + ") s ORDER BY s.id LIMIT :limit",
+    nativeQuery = true
+  )
+  List<StatementRow> findStatement(
+    @Param("accountId") long accountId,
+    @Param("afterId") long afterId,
+    @Param("limit") int limit
+  );
+
+  // a transfer stays while either side still exists, it's part of that account's history;
+  // one branch per side keeps both on their account indexes instead of scanning the table
+  @Modifying
+  @Query(
+    value = "DELETE FROM transaction WHERE id IN ("
+      + "SELECT s.id FROM ("
+      + "SELECT t.id, t.origin_account_id, t.destination_account_id FROM transaction t "
+      + "WHERE t.origin_account_id IN :accountIds "
+      + "UNION ALL "
+      + "SELECT t.id, t.origin_account_id, t.destination_account_id FROM transaction t "
+      + "WHERE t.destination_account_id IN :accountIds"
+      + ") s "
+      + "WHERE NOT EXISTS (SELECT 1 FROM account a WHERE a.id = s.origin_account_id) "
+      + "AND NOT EXISTS (SELECT 1 FROM account a WHERE a.id = s.destination_account_id) "
+      + "LIMIT :limit)",
+    nativeQuery = true
+  )
+  int deleteOrphaned(@Param("accountIds") Collection<Long> accountIds, @Param("limit") int limit);
+
 }
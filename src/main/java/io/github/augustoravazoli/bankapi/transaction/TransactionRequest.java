@@ -1,10 +1,11 @@
 package io.github.augustoravazoli.bankapi.transaction;
 
-import java.math.BigDecimal;
+import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Null;
 import jakarta.validation.constraints.Positive;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import io.github.augustoravazoli.bankapi.Money;
 
 interface OnDepositOrWithdraw {}
 interface OnTransfer {}
@@ -13,8 +14,9 @@ interface OnTransfer {}
 record TransactionRequest(
 
   @Positive
+  @DecimalMax(TransactionRequest.MAX_AMOUNT)
   @NotNull
-  BigDecimal amount,
+  Money amount,
 
   @NotNull
   Long originAccountId,
@@ -23,4 +25,9 @@ record TransactionRequest(
   @Null(groups = OnDepositOrWithdraw.class)
   Long destinationAccountId
 
-) {}
+) {
+
+  // far below the long range of minor units, so no sum of accepted amounts overflows a balance
+  static final String MAX_AMOUNT = "1000000000.00";
+
+}
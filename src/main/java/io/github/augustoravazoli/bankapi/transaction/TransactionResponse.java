@@ -1,15 +1,19 @@
 package io.github.augustoravazoli.bankapi.transaction;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import io.github.augustoravazoli.bankapi.Money;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 record TransactionResponse(
+  @JsonFormat(shape = JsonFormat.Shape.STRING)
   Long id,
-  BigDecimal amount,
+  Money amount,
   TransactionType type,
   LocalDate date,
+  @JsonFormat(shape = JsonFormat.Shape.STRING)
   Long originAccountId,
+  @JsonFormat(shape = JsonFormat.Shape.STRING)
   Long destinationAccountId
 ) {}
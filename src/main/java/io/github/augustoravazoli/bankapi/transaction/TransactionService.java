@@ -1,69 +1,360 @@
 package io.github.augustoravazoli.bankapi.transaction;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import io.github.augustoravazoli.bankapi.account.Account;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.server.ResponseStatusException;
+import io.github.augustoravazoli.bankapi.Money;
+import io.github.augustoravazoli.bankapi.RetryExecutor;
+import io.github.augustoravazoli.bankapi.account.AccountLockManager;
 import io.github.augustoravazoli.bankapi.account.AccountRepository;
+import io.github.augustoravazoli.bankapi.account.InsufficientBalanceException;
+import io.github.augustoravazoli.bankapi.account.Ledger;
+import io.github.augustoravazoli.bankapi.account.Ledger.Posting;
+import io.github.augustoravazoli.bankapi.account.SelfTransferException;
+import io.micrometer.core.annotation.Timed;
 
+@Timed("bankapi.service")
 @Service
-class TransactionService {
+class TransactionService implements DisposableBean {
 
   private final TransactionRepository transactionRepository;
   private final AccountRepository accountRepository;
+  private final AccountLockManager lockManager;
+  private final Ledger ledger;
+  private final TransactionOperations transactionOperations;
+  private final RetryExecutor retryExecutor;
+  private final TransactionPartitions partitions;
 
   @Autowired
   public TransactionService(
     TransactionRepository transactionRepository,
-    AccountRepository accountRepository
+    AccountRepository accountRepository,
+    AccountLockManager lockManager,
+    Ledger ledger,
+    TransactionOperations transactionOperations,
+    RetryExecutor retryExecutor,
+    TransactionPartitionsProperties partitionsProperties
   ) {
     this.transactionRepository = transactionRepository;
     this.accountRepository = accountRepository;
+    this.lockManager = lockManager;
+    this.ledger = ledger;
+    this.transactionOperations = transactionOperations;
+    this.retryExecutor = retryExecutor;
+    this.partitions = new TransactionPartitions(
+      partitionsProperties,
+      group -> writeGroup(group, BatchMode.BEST_EFFORT)
+    );
   }
 
-  @Transactional
+  // single account operations are queued on the account's partition and group committed
   public Transaction createDepositTransaction(Transaction newTransaction) {
-    var account = getOriginAccountById(newTransaction.getOriginAccountId());
-    account.deposit(newTransaction.getAmount());
     newTransaction.setType(TransactionType.DEPOSIT);
-    return transactionRepository.save(newTransaction);
+    return await(partitions.submit(newTransaction));
   }
 
-  @Transactional
   public Transaction createWithdrawalTransaction(Transaction newTransaction) {
-    var account = getOriginAccountById(newTransaction.getOriginAccountId());
-    account.withdraw(newTransaction.getAmount());
     newTransaction.setType(TransactionType.WITHDRAWAL);
-    return transactionRepository.save(newTransaction);
+    return await(partitions.submit(newTransaction));
   }
 
-  @Transactional
   public Transaction createTransferTransaction(Transaction newTransaction) {
-    var origin = getOriginAccountById(newTransaction.getOriginAccountId());
-    var destination = getDestinationAccountById(newTransaction.getDestinationAccountId());
-    origin.transfer(newTransaction.getAmount(), destination);
-    newTransaction.setType(TransactionType.TRANSFER);
-    return transactionRepository.save(newTransaction);
+    var originId = newTransaction.getOriginAccountId();
+    var destinationId = newTransaction.getDestinationAccountId();
+    if (originId.equals(destinationId)) {
+      validateAccountExists(originId, "origin");
+      throw new SelfTransferException();
+    }
+    // another instance may hold the origin row while waiting on a row this one holds,
+    // retry the deadlock victim
+    return retryExecutor.execute(() -> {
+      // only the debited account is locked, the destination just gets a credit entry
+      var lock = lockManager.lock(originId);
+      try {
+        return transactionOperations.execute(status -> {
+          var balance = lockOriginBalance(originId);
+          validateKeyUnused(newTransaction);
+          validateAccountExists(destinationId, "destination");
+          validateBalance(balance, newTransaction.getAmount());
+          newTransaction.setType(TransactionType.TRANSFER);
+          var savedTransaction = transactionRepository.save(newTransaction);
+          ledger.post(List.of(toPosting(savedTransaction)));
+          return savedTransaction;
+        });
+      } catch (ConcurrencyFailureException ex) {
+        // rolled back, so the id generated for it is discarded before the next attempt
+        newTransaction.setId(null);
+        throw ex;
+      } finally {
+        lock.close();
+      }
+    });
+  }
+
+  public BatchResult createBatchTransaction(List<Transaction> newTransactions, BatchMode mode) {
+    var failures = writeGroup(newTransactions, mode);
+    var items = new ArrayList<BatchResult.Item>(failures.size());
+    for (int i = 0; i < failures.size(); i++) {
+      var failure = failures.get(i);
+      if (failure == null) {
+        items.add(BatchResult.Item.applied(i, newTransactions.get(i)));
+      } else if (mode == BatchMode.ALL_OR_NOTHING) {
+        return new BatchResult(false, List.of(BatchResult.Item.failed(i, failure.getReason())));
+      } else {
+        items.add(BatchResult.Item.failed(i, failure.getReason()));
+      }
+    }
+    return new BatchResult(true, items);
   }
 
   public List<Transaction> findAllTransactions(long accountId, int page, int size) {
-    var currentPage = PageRequest.of(page, size, Sort.by("date").ascending());
+    var currentPage = PageRequest.of(page, size, Sort.by("id").ascending());
     return transactionRepository.findAllByOriginAccountId(accountId, currentPage);
   }
 
-  private Account getOriginAccountById(long id) {
-    return accountRepository
-      .findById(id)
+  public TransactionSlice findTransactionsAfter(long accountId, long afterId, int size) {
+    // one extra row tells whether there's a next slice, without a count query
+    var nextSlice = PageRequest.of(0, size + 1, Sort.by("id").ascending());
+    var transactions = transactionRepository
+      .findAllByOriginAccountIdAndIdGreaterThan(accountId, afterId, nextSlice);
+    if (transactions.size() <= size) {
+      return new TransactionSlice(transactions, null);
+    }
+    var slice = transactions.subList(0, size);
+    return new TransactionSlice(slice, slice.get(size - 1).getId());
+  }
+
+  public Statement findStatement(long accountId, StatementCursor after, int size) {
+    var rows = transactionRepository.findStatement(accountId, after.transactionId(), size + 1);
+    var entries = new ArrayList<StatementEntry>(Math.min(rows.size(), size));
+    var balance = after.balance();
+    for (var row : rows.subList(0, Math.min(rows.size(), size))) {
+      balance = balance.plus(Money.ofMinorUnits(row.getAmount()));
+      entries.add(new StatementEntry(row, balance));
+    }
+    if (rows.size() <= size) {
+      return new Statement(entries, null);
+    }
+    return new Statement(entries, new StatementCursor(entries.get(size - 1).id(), balance));
+  }
+
+  @Override
+  public void destroy() {
+    partitions.close();
+  }
+
+  private List<ResponseStatusException> writeGroup(List<Transaction> transactions, BatchMode mode) {
+    // a group locks several debited rows in one db transaction, another instance may lock some of
+    // them while waiting on others, retry the deadlock victim
+    return retryExecutor.execute(() -> {
+      try {
+        return writeGroupOnce(transactions, mode);
+      } catch (DataIntegrityViolationException ex) {
+        if (transactions.stream().allMatch(transaction -> transaction.getIdempotencyKey() == null)) {
+          throw ex;
+        }
+        // another instance stored one of the keys after they were read, the whole group was rolled back,
+        // so it runs again and this time only the keys now stored are rejected
+        transactions.forEach(transaction -> transaction.setId(null));
+        return writeGroupOnce(transactions, mode);
+      }
+    });
+  }
+
+  // applies the transactions against the locked balances and commits them in one db transaction,
+  // returning why each one was rejected or null when it was applied
+  private List<ResponseStatusException> writeGroupOnce(List<Transaction> transactions, BatchMode mode) {
+    // only debited accounts are locked, credits are plain inserts like a transfer's destination
+    var debitedIds = new HashSet<Long>();
+    var creditedIds = new HashSet<Long>();
+    for (var transaction : transactions) {
+      if (transaction.getType() == TransactionType.DEPOSIT) {
+        creditedIds.add(transaction.getOriginAccountId());
+      } else {
+        debitedIds.add(transaction.getOriginAccountId());
+      }
+      if (transaction.getDestinationAccountId() != null) {
+        creditedIds.add(transaction.getDestinationAccountId());
+      }
+    }
+    creditedIds.removeAll(debitedIds);
+    var locks = lockManager.lock(debitedIds);
+    try {
+      return transactionOperations.execute(status -> {
+        var balances = new HashMap<>(ledger.lockAvailableBalances(debitedIds));
+        var accountIds = new HashSet<>(balances.keySet());
+        if (!creditedIds.isEmpty()) {
+          accountIds.addAll(accountRepository.findExistingIds(creditedIds));
+        }
+        var storedTransactions = findStoredTransactions(transactions);
+        var failures = new ArrayList<ResponseStatusException>(transactions.size());
+        var appliedTransactions = new ArrayList<Transaction>(transactions.size());
+        for (var transaction : transactions) {
+          try {
+            var key = transaction.getIdempotencyKey();
+            if (key != null && storedTransactions.containsKey(key)) {
+              throw new IdempotencyKeyUsedException(storedTransactions.get(key));
+            }
+            apply(transaction, accountIds, balances);
+            appliedTransactions.add(transaction);
+            if (key != null) {
+              storedTransactions.put(key, transaction);
+            }
+            failures.add(null);
+          } catch (ResponseStatusException ex) {
+            failures.add(ex);
+            if (mode == BatchMode.ALL_OR_NOTHING) {
+              status.setRollbackOnly();
+              return failures;
+            }
+          }
+        }
+        if (!appliedTransactions.isEmpty()) {
+          // transactions and ledger entries are flushed together, as jdbc batches
+          transactionRepository.saveAll(appliedTransactions);
+          ledger.post(appliedTransactions.stream().map(TransactionService::toPosting).toList());
+        }
+        return failures;
+      });
+    } catch (ConcurrencyFailureException ex) {
+      // rolled back, so the ids generated for the group are discarded before the next attempt
+      transactions.forEach(transaction -> transaction.setId(null));
+      throw ex;
+    } finally {
+      locks.close();
+    }
+  }
+
+  // applied transactions are added as the group goes, so a key repeated inside the group is caught too
+  private Map<String, Transaction> findStoredTransactions(List<Transaction> transactions) {
+    var keys = transactions.stream()
+      .map(Transaction::getIdempotencyKey)
+      .filter(Objects::nonNull)
+      .toList();
+    var storedTransactions = new HashMap<String, Transaction>();
+    if (!keys.isEmpty()) {
+      transactionRepository.findAllByIdempotencyKeyIn(keys)
+        .forEach(transaction -> storedTransactions.put(transaction.getIdempotencyKey(), transaction));
+    }
+    return storedTransactions;
+  }
+
+  private Transaction await(CompletableFuture<Transaction> result) {
+    try {
+      return result.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (ex.getCause() instanceof TimeoutException) {
+        throw new CommitTimeoutException();
+      }
+      throw ex;
+    }
+  }
+
+  // balances holds the locked debited accounts only, credits to the others aren't tracked
+  private void apply(Transaction transaction, Set<Long> accountIds, Map<Long, Money> balances) {
+    var originId = transaction.getOriginAccountId();
+    var destinationId = transaction.getDestinationAccountId();
+    var amount = transaction.getAmount();
+    requireAccount(accountIds, originId, "origin");
+    if (transaction.getType() != TransactionType.TRANSFER && destinationId != null) {
+      throw new InvalidAccountException("destination account is only allowed on transfers");
+    }
+    switch (transaction.getType()) {
+      case DEPOSIT -> credit(balances, originId, amount);
+      case WITHDRAWAL -> {
+        validateBalance(balances.get(originId), amount);
+        balances.merge(originId, amount.negate(), Money::plus);
+      }
+      case TRANSFER -> {
+        if (originId.equals(destinationId)) {
+          throw new SelfTransferException();
+        }
+        requireAccount(accountIds, destinationId, "destination");
+        validateBalance(balances.get(originId), amount);
+        // the credit goes first, it's the side that can fail and nothing is changed yet when it does
+        credit(balances, destinationId, amount);
+        balances.merge(originId, amount.negate(), Money::plus);
+      }
+    }
+  }
+
+  // an overflowing credit rejects its own transaction, not the whole group
+  private void credit(Map<Long, Money> balances, Long accountId, Money amount) {
+    try {
+      balances.computeIfPresent(accountId, (id, balance) -> balance.plus(amount));
+    } catch (ArithmeticException ex) {
+      throw new BalanceOverflowException();
+    }
+  }
+
+  private void requireAccount(Set<Long> accountIds, Long accountId, String accountRole) {
+    if (!accountIds.contains(accountId)) {
+      throw new InvalidAccountException(accountRole + " account doesn't exists");
+    }
+  }
+
+  static Posting toPosting(Transaction transaction) {
+    return switch (transaction.getType()) {
+      case DEPOSIT -> new Posting(
+        transaction.getId(), null, transaction.getOriginAccountId(), transaction.getAmount()
+      );
+      case WITHDRAWAL -> new Posting(
+        transaction.getId(), transaction.getOriginAccountId(), null, transaction.getAmount()
+      );
+      case TRANSFER -> new Posting(
+        transaction.getId(),
+        transaction.getOriginAccountId(),
+        transaction.getDestinationAccountId(),
+        transaction.getAmount()
+      );
+    };
+  }
+
+  private Money lockOriginBalance(long accountId) {
+    return ledger
+      .lockAvailableBalance(accountId)
       .orElseThrow(() -> new InvalidAccountException("origin account doesn't exists"));
   }
 
-  private Account getDestinationAccountById(long id) {
-    return accountRepository
-      .findById(id)
-      .orElseThrow(() -> new InvalidAccountException("destination account doesn't exists"));
+  private void validateBalance(Money balance, Money amount) {
+    if (balance.isLessThan(amount)) {
+      throw new InsufficientBalanceException();
+    }
+  }
+
+  private void validateKeyUnused(Transaction transaction) {
+    if (transaction.getIdempotencyKey() == null) {
+      return;
+    }
+    var storedTransaction = transactionRepository.findByIdempotencyKey(transaction.getIdempotencyKey());
+    if (storedTransaction.isPresent()) {
+      throw new IdempotencyKeyUsedException(storedTransaction.get());
+    }
+  }
+
+  private void validateAccountExists(long accountId, String accountRole) {
+    if (!accountRepository.existsById(accountId)) {
+      throw new InvalidAccountException(accountRole + " account doesn't exists");
+    }
   }
 
 }
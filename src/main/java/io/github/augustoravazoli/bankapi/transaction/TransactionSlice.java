@@ -0,0 +1,11 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.util.List;
+
+record TransactionSlice(List<Transaction> transactions, Long lastTransactionId) {
+
+  boolean hasNext() {
+    return lastTransactionId != null;
+  }
+
+}
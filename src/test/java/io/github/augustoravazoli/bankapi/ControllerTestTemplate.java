@@ -9,6 +9,9 @@ import net.datafaker.Faker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.restdocs.RestDocumentationContextProvider;
 import org.springframework.restdocs.RestDocumentationExtension;
@@ -35,6 +38,8 @@ import org.springframework.web.context.WebApplicationContext;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+// the web slices leave metrics out, but the exception handler counts errors into a registry
+@ImportAutoConfiguration({MetricsAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class})
 @ExtendWith(RestDocumentationExtension.class)
 public abstract class ControllerTestTemplate {
 
@@ -83,10 +88,14 @@ public abstract class ControllerTestTemplate {
     }
 
     public FieldDescriptor path(String path) {
-      var description = constraints.descriptionsForProperty(path).stream()
+      return nestedPath("", path);
+    }
+
+    public FieldDescriptor nestedPath(String parent, String property) {
+      var description = constraints.descriptionsForProperty(property).stream()
         .filter(s -> !s.isEmpty())
         .collect(joining(". "));
-      return fieldWithPath(path).attributes(key("constraints").value(description));
+      return fieldWithPath(parent + property).attributes(key("constraints").value(description));
     }
 
     private static ResourceBundleConstraintDescriptionResolver resolver(List<Class<?>> groups) {
@@ -0,0 +1,32 @@
+package io.github.augustoravazoli.bankapi;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@Tag("benchmark")
+class MicrobenchmarkTest {
+
+  @Test
+  void runMicrobenchmarks() throws IOException, RunnerException {
+    // the benchmark profile names the file after the project version, one per release
+    var resultFile = Path.of(System.getProperty("jmh.results", "target/benchmark/jmh.json"));
+    Files.createDirectories(resultFile.getParent());
+    var options = new OptionsBuilder()
+      .include(System.getProperty("jmh.include", "io\\.github\\.augustoravazoli\\.bankapi\\..*Benchmark"))
+      .resultFormat(ResultFormatType.JSON)
+      .result(resultFile.toString())
+      .build();
+    var results = new Runner(options).run();
+    assertThat(results).isNotEmpty();
+    assertThat(resultFile).isNotEmptyFile();
+  }
+
+}
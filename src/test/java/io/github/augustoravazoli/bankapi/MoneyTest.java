@@ -0,0 +1,64 @@
+package io.github.augustoravazoli.bankapi;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @Test
+  void whenOf_thenKeepsMinorUnitsWhateverTheScale() {
+    // then
+    assertThat(Money.of("10")).isEqualTo(Money.ofMinorUnits(1000));
+    assertThat(Money.of("10.0")).isEqualTo(Money.of("10.00"));
+    assertThat(Money.of(new BigDecimal("-0.05")).minorUnits()).isEqualTo(-5);
+  }
+
+  @Test
+  void givenFractionalCent_whenOf_thenThrowsInsteadOfRounding() {
+    // then
+    assertThatThrownBy(() -> Money.of("0.001")).isInstanceOf(ArithmeticException.class);
+  }
+
+  @Test
+  void givenOverflow_whenPlus_thenThrowsInsteadOfWrapping() {
+    // given
+    var max = Money.ofMinorUnits(Long.MAX_VALUE);
+    // then
+    assertThatThrownBy(() -> max.plus(Money.ofMinorUnits(1))).isInstanceOf(ArithmeticException.class);
+  }
+
+  @Test
+  void whenArithmetic_thenIsExact() {
+    // given
+    var amount = Money.of("0.10");
+    // when
+    var total = amount.plus(amount).plus(amount).minus(Money.of("0.30"));
+    // then
+    assertThat(total).isEqualTo(Money.ZERO);
+    assertThat(Money.of("1.00").negate()).isEqualTo(Money.of("-1.00"));
+    assertThat(Money.of("1.00").isLessThan(Money.of("1.01"))).isTrue();
+  }
+
+  @Test
+  void whenSerialize_thenWritesDecimalNumber() throws Exception {
+    // when
+    var json = mapper.writeValueAsString(Money.ofMinorUnits(1050));
+    // then
+    assertThat(json).isEqualTo("10.50");
+    assertThat(Money.ofMinorUnits(-5)).hasToString("-0.05");
+  }
+
+  @Test
+  void whenDeserialize_thenReadsDecimalNumberOrString() throws Exception {
+    // then
+    assertThat(mapper.readValue("10.5", Money.class)).isEqualTo(Money.ofMinorUnits(1050));
+    assertThat(mapper.readValue("7", Money.class)).isEqualTo(Money.ofMinorUnits(700));
+    assertThat(mapper.readValue("\"0.99\"", Money.class)).isEqualTo(Money.ofMinorUnits(99));
+  }
+
+}
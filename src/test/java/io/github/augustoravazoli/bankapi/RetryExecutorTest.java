@@ -0,0 +1,73 @@
+package io.github.augustoravazoli.bankapi;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RetryExecutorTest {
+
+  private final RetryExecutor retryExecutor = new RetryExecutor(3, Duration.ofMillis(1), Duration.ofMillis(2));
+
+  @Test
+  void givenTransientConflict_whenExecute_thenRetriesUntilSuccess() {
+    // given
+    var calls = new AtomicInteger();
+    // when
+    var result = retryExecutor.execute(() -> {
+      if (calls.incrementAndGet() < 3) {
+        throw new OptimisticLockingFailureException("conflict");
+      }
+      return "done";
+    });
+    // then
+    assertThat(result).isEqualTo("done");
+    assertThat(retryExecutor.getAttempts()).isEqualTo(3);
+    assertThat(retryExecutor.getConflicts()).isEqualTo(2);
+    assertThat(retryExecutor.getExhausted()).isZero();
+  }
+
+  @Test
+  void givenPersistentConflict_whenExecute_thenGivesUpAfterMaxAttempts() {
+    // given
+    var calls = new AtomicInteger();
+    // then
+    assertThatThrownBy(() -> retryExecutor.execute(() -> {
+      calls.incrementAndGet();
+      throw new OptimisticLockingFailureException("conflict");
+    })).isInstanceOf(OptimisticLockingFailureException.class);
+    assertThat(calls.get()).isEqualTo(3);
+    assertThat(retryExecutor.getExhausted()).isEqualTo(1);
+    assertThat(retryExecutor.getConflictRate()).isEqualTo(1.0);
+  }
+
+  @Test
+  void givenOtherFailure_whenExecute_thenDoesNotRetry() {
+    // given
+    var calls = new AtomicInteger();
+    // then
+    assertThatThrownBy(() -> retryExecutor.execute(() -> {
+      calls.incrementAndGet();
+      throw new IllegalStateException();
+    })).isInstanceOf(IllegalStateException.class);
+    assertThat(calls.get()).isEqualTo(1);
+    assertThat(retryExecutor.getConflicts()).isZero();
+  }
+
+  @Test
+  void whenBindTo_thenExportsConflictRate() {
+    // given
+    var registry = new SimpleMeterRegistry();
+    retryExecutor.bindTo(registry);
+    // when
+    assertThatThrownBy(() -> retryExecutor.execute(() -> {
+      throw new OptimisticLockingFailureException("conflict");
+    })).isInstanceOf(OptimisticLockingFailureException.class);
+    // then
+    assertThat(registry.get("bankapi.retry.conflict.rate").gauge().value()).isEqualTo(1.0);
+  }
+
+}
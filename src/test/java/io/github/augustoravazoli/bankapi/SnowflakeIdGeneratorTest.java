@@ -0,0 +1,115 @@
+package io.github.augustoravazoli.bankapi;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdGeneratorTest {
+
+  private static class MutableClock extends Clock {
+
+    private Instant instant;
+
+    MutableClock(Instant instant) {
+      this.instant = instant;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+
+    @Override
+    public ZoneOffset getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+  }
+
+  private final MutableClock clock = new MutableClock(Instant.parse("2024-05-01T12:00:00Z"));
+  private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, clock);
+
+  @Test
+  void whenNextId_thenEncodesTimestampAndNode() {
+    // when
+    var id = generator.nextId();
+    // then
+    assertThat(SnowflakeIdGenerator.timestampOf(id)).isEqualTo(clock.instant());
+    assertThat((id >>> 12) & 1023).isEqualTo(7);
+  }
+
+  @Test
+  void givenSameMillisecond_whenNextId_thenIdsKeepIncreasing() {
+    // when
+    var first = generator.nextId();
+    var second = generator.nextId();
+    // then
+    assertThat(second).isGreaterThan(first);
+  }
+
+  @Test
+  void givenClockMovedBackwards_whenNextId_thenIdsKeepIncreasing() {
+    // given
+    var first = generator.nextId();
+    // when
+    clock.instant = clock.instant.minusSeconds(5);
+    var second = generator.nextId();
+    // then
+    assertThat(second).isGreaterThan(first);
+  }
+
+  @Test
+  void givenExhaustedSequence_whenNextId_thenBorrowsNextMillisecond() {
+    // given
+    var start = clock.instant();
+    // when
+    var ids = new long[5000];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = generator.nextId();
+    }
+    // then
+    for (int i = 1; i < ids.length; i++) {
+      assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+    }
+    assertThat(SnowflakeIdGenerator.timestampOf(ids[ids.length - 1])).isAfter(start);
+  }
+
+  @Test
+  void givenConcurrentCallers_whenNextId_thenIdsAreUnique() throws Exception {
+    // given
+    var generator = SnowflakeIdGenerator.shared(1);
+    var ids = ConcurrentHashMap.<Long>newKeySet();
+    var executor = Executors.newFixedThreadPool(8);
+    // when
+    for (int i = 0; i < 8; i++) {
+      executor.submit(() -> {
+        for (int j = 0; j < 10_000; j++) {
+          ids.add(generator.nextId());
+        }
+      });
+    }
+    executor.shutdown();
+    // then
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(ids).hasSize(80_000);
+  }
+
+  @Test
+  void givenOutOfRangeNodeId_whenCreate_thenThrowsIllegalArgumentException() {
+    assertThatThrownBy(() -> new SnowflakeIdGenerator(1024, clock))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+}
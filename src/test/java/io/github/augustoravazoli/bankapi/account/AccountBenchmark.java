@@ -0,0 +1,43 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import io.github.augustoravazoli.bankapi.customer.Customer;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccountBenchmark {
+
+  private final AccountMapper accountMapper = new AccountMapperImpl();
+
+  private Account account;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    var owner = new Customer(
+      1L, "benchmark", "benchmark@example.com", "52998224725", LocalDate.of(1990, 1, 1)
+    );
+    account = new Account(1L, "benchmark", owner);
+  }
+
+  @Benchmark
+  public AccountResponse toResponse() {
+    return accountMapper.toResponse(account);
+  }
+
+}
@@ -1,15 +1,17 @@
 package io.github.augustoravazoli.bankapi.account;
 
 import java.time.LocalDate;
-import java.math.BigDecimal;
 import static org.hamcrest.Matchers.endsWith;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.restdocs.payload.RequestFieldsSnippet;
+import org.springframework.restdocs.request.QueryParametersSnippet;
 
 import static org.springframework.restdocs.payload.PayloadDocumentation.requestFields;
+import static org.springframework.restdocs.request.RequestDocumentation.parameterWithName;
+import static org.springframework.restdocs.request.RequestDocumentation.queryParameters;
 import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
 import static org.springframework.http.HttpHeaders.LOCATION;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
@@ -17,18 +19,25 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import io.github.augustoravazoli.bankapi.ControllerTestTemplate;
+import io.github.augustoravazoli.bankapi.Money;
 import io.github.augustoravazoli.bankapi.customer.Customer;
+import reactor.core.publisher.Mono;
 
 @Import(AccountMapperImpl.class)
 @WebMvcTest(AccountController.class)
@@ -42,15 +51,19 @@ class AccountControllerTest extends ControllerTestTemplate {
     // given
     var newAccount = new AccountRequest(1);
     var savedAccount = new Account(1L, "bankname", new Customer());
-    var returnedAccount = new AccountResponse(1L, "bankname", BigDecimal.ZERO, LocalDate.now());
+    var returnedAccount = new AccountResponse(1L, "bankname", Money.ZERO, LocalDate.now());
     // and
-    when(accountService.createAccount(anyString(), any(AccountRequest.class))).thenReturn(savedAccount);
+    when(accountService.createAccount(anyString(), any(AccountRequest.class)))
+      .thenReturn(Mono.just(savedAccount));
     // when
-    mvc.perform(post("/api/v1/customers/{cpf}/accounts", CPF)
+    var result = mvc.perform(post("/api/v1/customers/{cpf}/accounts", CPF)
       .content(toJson(newAccount))
       .contentType(APPLICATION_JSON)
     )
+    .andExpect(request().asyncStarted())
+    .andReturn();
     // then
+    mvc.perform(asyncDispatch(result))
     .andExpectAll(
       status().isCreated(),
       header().string(LOCATION, endsWith("/api/v1/customers/" + CPF + "/accounts/" + returnedAccount.id())),
@@ -62,10 +75,9 @@ class AccountControllerTest extends ControllerTestTemplate {
   @Test
   void whenFindAccount_thenReturns200AndFindedAccount() throws Exception {
     // given
-    var findedAccount = new Account(1L, "bankname", new Customer());
-    var returnedAccount = new AccountResponse(1L, "bankname", BigDecimal.ZERO, LocalDate.now());
+    var returnedAccount = new AccountResponse(1L, "bankname", Money.ZERO, LocalDate.now());
     // and
-    when(accountService.findAccount(anyString(), anyLong())).thenReturn(findedAccount);
+    when(accountService.findAccount(anyString(), anyLong())).thenReturn(returnedAccount);
     // when
     mvc.perform(
       get("/api/v1/customers/{cpf}/accounts/{id}", CPF, returnedAccount.id())
@@ -78,21 +90,54 @@ class AccountControllerTest extends ControllerTestTemplate {
     .andDo(document("account/find"));
   }
 
+  @Test
+  void whenFindBalance_thenReturns200AndBalanceAtDate() throws Exception {
+    // given
+    var date = LocalDate.now().minusDays(30);
+    var returnedBalance = new BalanceResponse(1L, date, Money.of("250.00"));
+    // and
+    when(accountService.findBalance(anyString(), eq(1L), eq(date))).thenReturn(Money.of("250.00"));
+    // when
+    mvc.perform(
+      get("/api/v1/customers/{cpf}/accounts/{id}/balance?at={at}", CPF, 1L, date)
+    )
+    // then
+    .andExpectAll(
+      status().isOk(),
+      content().json(toJson(returnedBalance))
+    )
+    .andDo(document("account/balance", balanceSnippet()));
+  }
+
+  @Test
+  void givenFutureDate_whenFindBalance_thenReturns422() throws Exception {
+    // when
+    mvc.perform(
+      get("/api/v1/customers/{cpf}/accounts/{id}/balance?at={at}", CPF, 1L, LocalDate.now().plusDays(1))
+    )
+    // then
+    .andExpect(status().isUnprocessableEntity());
+    verify(accountService, never()).findBalance(anyString(), anyLong(), any());
+  }
+
   @Test
   void whenEditAccount_thenReturns200AndEditedAccount() throws Exception {
     // given
     var account = new AccountRequest(1);
     var editedAccount = new Account(1L, "bankname", new Customer());
-    var returnedAccount = new AccountResponse(1L, "bankname", BigDecimal.ZERO, LocalDate.now());
+    var returnedAccount = new AccountResponse(1L, "bankname", Money.ZERO, LocalDate.now());
     // and
     when(accountService.editAccount(anyString(), anyLong(), any(AccountRequest.class)))
-      .thenReturn(editedAccount);
+      .thenReturn(Mono.just(editedAccount));
     // when
-    mvc.perform(put("/api/v1/customers/{cpf}/accounts/{id}", CPF, returnedAccount.id())
+    var result = mvc.perform(put("/api/v1/customers/{cpf}/accounts/{id}", CPF, returnedAccount.id())
       .content(toJson(account))
       .contentType(APPLICATION_JSON)
     )
+    .andExpect(request().asyncStarted())
+    .andReturn();
     // then
+    mvc.perform(asyncDispatch(result))
     .andExpectAll(
       status().isOk(),
       content().json(toJson(returnedAccount))
@@ -118,6 +163,12 @@ class AccountControllerTest extends ControllerTestTemplate {
     .andDo(document("account/remove"));
   }
 
+  private QueryParametersSnippet balanceSnippet() {
+    return queryParameters(
+      parameterWithName("at").description("Day whose closing balance is retrieved, today or earlier")
+    );
+  }
+
   private RequestFieldsSnippet accountSnippet() {
     var fields = new ConstrainedFields(AccountRequest.class);
     return requestFields(
@@ -0,0 +1,102 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.assertj.core.api.Assertions.assertThat;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+// runs against an in-memory database, the bank lookups hit a mocked Brazil API
+@SpringBootTest(
+  webEnvironment = RANDOM_PORT,
+  properties = {
+    "management.server.port=0",
+    "spring.datasource.url=jdbc:h2:mem:accountcreation;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.r2dbc.url=r2dbc:h2:mem:///accountcreation;DB_CLOSE_DELAY=-1",
+    "spring.r2dbc.username=sa",
+    "spring.r2dbc.password="
+  }
+)
+class AccountCreationIntegrationTest {
+
+  private static final String OWNER_CPF = "52998224725";
+
+  private static MockWebServer mockedServer;
+
+  @TempDir
+  private static Path tempDir;
+
+  @Autowired
+  private TestRestTemplate restTemplate;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeAll
+  static void setUp() throws IOException {
+    mockedServer = new MockWebServer();
+    // an empty directory, so every bank code misses the cache and is looked up on its own
+    mockedServer.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) {
+        var body = request.getPath().equals("/api/banks/v1")
+          ? "[]"
+          : "{\"code\":1,\"fullName\":\"bankname\"}";
+        return new MockResponse().setBody(body).addHeader("Content-Type", "application/json");
+      }
+    });
+    mockedServer.start();
+  }
+
+  @AfterAll
+  static void tearDown() throws IOException {
+    mockedServer.shutdown();
+  }
+
+  @DynamicPropertySource
+  static void brazilApiProperties(DynamicPropertyRegistry registry) {
+    registry.add("brazil-api.base-url", () -> mockedServer.url("/").toString().replaceAll("/$", ""));
+    registry.add("brazil-api.snapshot-file", () -> tempDir.resolve("banks.json").toString());
+  }
+
+  @Test
+  void givenBankCodeMissingFromCache_whenCreateAccount_thenCreatesAccount() {
+    // given
+    jdbcTemplate.update(
+      "INSERT INTO customer (id, name, email, cpf, birth_date, version) "
+        + "VALUES (1, 'name', 'email@email.com', ?, DATE '1990-01-01', 0)",
+      OWNER_CPF
+    );
+    // when
+    var response = restTemplate.postForEntity(
+      "/api/v1/customers/{cpf}/accounts",
+      new AccountRequest(1),
+      String.class,
+      OWNER_CPF
+    );
+    // then
+    assertThat(response.getStatusCode()).isEqualTo(CREATED);
+    assertThat(response.getBody()).contains("\"bank\":\"bankname\"");
+    assertThat(jdbcTemplate.queryForObject(
+      "SELECT COUNT(*) FROM account WHERE account_id = 1 AND bank = 'bankname'", Long.class
+    )).isEqualTo(1L);
+  }
+
+}
@@ -0,0 +1,83 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccountLockManagerTest {
+
+  private final AccountLockManager lockManager = new AccountLockManager(64);
+
+  @Test
+  void whenLockUncontendedAccount_thenNoContentionIsRecorded() {
+    // when
+    try (var locks = lockManager.lock(1L)) {}
+    try (var locks = lockManager.lock(List.of(1L, 2L))) {}
+    // then
+    assertThat(lockManager.getAcquisitions()).isEqualTo(3);
+    assertThat(lockManager.getContentions()).isZero();
+  }
+
+  @Test
+  void givenLockedAccount_whenLockFromAnotherThread_thenWaitsAndRecordsContention() throws Exception {
+    // given
+    var acquired = new CountDownLatch(1);
+    var executor = Executors.newSingleThreadExecutor();
+    // when
+    try (var locks = lockManager.lock(1L)) {
+      executor.submit(() -> {
+        try (var otherLocks = lockManager.lock(1L)) {
+          acquired.countDown();
+        }
+      });
+      // then
+      assertThat(acquired.await(200, TimeUnit.MILLISECONDS)).isFalse();
+    }
+    assertThat(acquired.await(1, TimeUnit.SECONDS)).isTrue();
+    assertThat(lockManager.getContentions()).isEqualTo(1);
+    executor.shutdown();
+  }
+
+  @Test
+  void whenLockManyAccounts_thenLocksEachStripeOnce() {
+    // when
+    try (var locks = lockManager.lock(List.of(3L, 1L, 2L, 1L))) {
+      // then
+      assertThat(lockManager.getAcquisitions()).isEqualTo(3);
+    }
+    try (var locks = lockManager.lock(1L)) {}
+    assertThat(lockManager.getContentions()).isZero();
+  }
+
+  @Test
+  void givenOpposingOrders_whenLockManyAccounts_thenNeverDeadlocks() throws Exception {
+    // given
+    var iterations = 10_000;
+    var counter = new AtomicInteger();
+    var executor = Executors.newFixedThreadPool(2);
+    // when
+    executor.submit(() -> {
+      for (int i = 0; i < iterations; i++) {
+        try (var locks = lockManager.lock(List.of(1L, 2L))) {
+          counter.incrementAndGet();
+        }
+      }
+    });
+    executor.submit(() -> {
+      for (int i = 0; i < iterations; i++) {
+        try (var locks = lockManager.lock(List.of(2L, 1L))) {
+          counter.incrementAndGet();
+        }
+      }
+    });
+    executor.shutdown();
+    // then
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(counter.get()).isEqualTo(2 * iterations);
+  }
+
+}
@@ -1,11 +1,21 @@
 package io.github.augustoravazoli.bankapi.account;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -17,22 +27,47 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import io.github.augustoravazoli.bankapi.Money;
+import io.github.augustoravazoli.bankapi.RetryExecutor;
 import io.github.augustoravazoli.bankapi.customer.Customer;
+import io.github.augustoravazoli.bankapi.customer.CustomerCache;
 import io.github.augustoravazoli.bankapi.customer.CustomerNotFoundException;
 import io.github.augustoravazoli.bankapi.customer.CustomerRepository;
+import io.github.augustoravazoli.bankapi.customer.CustomerSnapshot;
+import reactor.core.publisher.Mono;
 
 @ExtendWith(MockitoExtension.class)
 class AccountServiceTest {
 
+  private static record Row(Long getId, String getBank, long getBalance, LocalDate getCreatedAt) implements AccountRow {}
+
   @Mock
   private AccountRepository accountRepository;
 
   @Mock
   private CustomerRepository customerRepository;
 
+  @Mock
+  private CustomerCache customerCache;
+
   @Mock
   private BankClient bankClient;
 
+  @Mock
+  private BalanceCheckpoints balanceCheckpoints;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Spy
+  private MeterRegistry registry = new SimpleMeterRegistry();
+
+  @Mock
+  private TransactionOperations transactionOperations;
+
+  @Spy
+  private RetryExecutor retryExecutor = new RetryExecutor(3, Duration.ZERO, Duration.ZERO);
+
   @InjectMocks
   private AccountService accountService;
 
@@ -42,21 +77,61 @@ class AccountServiceTest {
     var customer = new Customer();
     var newAccount = new Account("bankname", customer);
     // and
-    when(customerRepository.findByCpf(anyString())).thenReturn(Optional.of(customer));
-    when(bankClient.findBankNameByCode(anyInt())).thenReturn("bankname");
+    when(customerCache.findByCpf(anyString())).thenReturn(Optional.of(CustomerSnapshot.of(customer)));
+    when(customerRepository.getReferenceById(any())).thenReturn(customer);
+    when(bankClient.findBankNameByCodeAsync(anyInt())).thenReturn(Mono.just("bankname"));
     when(accountRepository.save(any(Account.class))).then(returnsFirstArg());
+    when(transactionOperations.execute(any()))
+      .then(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     // when
-    var savedAccount = accountService.createAccount("xxx.xxx.xxx-xx", new AccountRequest(1));
+    var savedAccount = accountService.createAccount("xxx.xxx.xxx-xx", new AccountRequest(1)).block();
     // then
     assertThat(savedAccount).usingRecursiveComparison().isEqualTo(newAccount);
+    verify(transactionOperations, times(1)).execute(any());
+  }
+
+  @Test
+  void givenCustomerRemovedWhileCached_whenCreateAccount_thenEvictsItAndThrowsCustomerNotFoundException() {
+    // given
+    var customer = new Customer();
+    // and
+    when(customerCache.findByCpf(anyString())).thenReturn(Optional.of(CustomerSnapshot.of(customer)));
+    when(bankClient.findBankNameByCodeAsync(anyInt())).thenReturn(Mono.just("bankname"));
+    when(transactionOperations.execute(any()))
+      .thenThrow(new DataIntegrityViolationException("violates foreign key constraint"));
+    when(customerRepository.existsById(any())).thenReturn(false);
+    // when
+    var account = accountService.createAccount("xxx.xxx.xxx-xx", new AccountRequest(1));
+    // then
+    assertThatThrownBy(account::block).isInstanceOf(CustomerNotFoundException.class);
+    verify(customerCache, times(1)).evict("xxx.xxx.xxx-xx");
+  }
+
+  @Test
+  void whenCreateAccount_thenTimesUntilMonoCompletes() {
+    // given
+    var customer = new Customer();
+    // and
+    when(customerCache.findByCpf(anyString())).thenReturn(Optional.of(CustomerSnapshot.of(customer)));
+    when(bankClient.findBankNameByCodeAsync(anyInt())).thenReturn(Mono.error(new InvalidBankCodeException()));
+    // when
+    var account = accountService.createAccount("xxx.xxx.xxx-xx", new AccountRequest(1));
+    // then
+    assertThat(registry.find("bankapi.service").timers()).isEmpty();
+    assertThatThrownBy(account::block).isInstanceOf(InvalidBankCodeException.class);
+    var timer = registry.get("bankapi.service")
+      .tag("method", "createAccount")
+      .tag("exception", "InvalidBankCodeException")
+      .timer();
+    assertThat(timer.count()).isEqualTo(1);
   }
 
   @Test
   void givenNonexistentCustomer_whenCreateAccount_thenThrowsCustomerNotFoundException() {
     // given
-    var nonexistentCustomer = Optional.<Customer>empty();
+    var nonexistentCustomer = Optional.<CustomerSnapshot>empty();
     // and
-    when(customerRepository.findByCpf(anyString())).thenReturn(nonexistentCustomer);
+    when(customerCache.findByCpf(anyString())).thenReturn(nonexistentCustomer);
     // then
     assertThatThrownBy(() -> accountService.createAccount("xxx.xxx.xxx-xx", new AccountRequest(1)))
       .isInstanceOf(CustomerNotFoundException.class);
@@ -66,51 +141,65 @@ class AccountServiceTest {
   @Test
   void whenFindAccount_thenReturnsFindedAccount() {
     // given
-    var customer = new Customer();
-    var account = new Account("bankname", customer);
+    var account = new Row(1L, "bankname", 1050L, LocalDate.now());
     // and
-    when(customerRepository.findByCpf(anyString())).thenReturn(Optional.of(customer));
-    when(accountRepository.findById(anyLong())).thenReturn(Optional.of(account));
+    when(accountRepository.findRowByIdAndOwnerCpf(1L, "xxx.xxx.xxx-xx")).thenReturn(Optional.of(account));
     // when
     var findedAccount = accountService.findAccount("xxx.xxx.xxx-xx", 1L);
     // then
-    assertThat(findedAccount).isEqualTo(account);
+    assertThat(findedAccount).isEqualTo(new AccountResponse(1L, "bankname", Money.of("10.50"), account.getCreatedAt()));
+    verify(customerCache, never()).findByCpf(anyString());
+    verify(accountRepository, never()).findById(anyLong());
   }
 
   @Test
-  void givenNonexistentCustomer_whenFindAccount_thenThrowsCustomerNotFoundException() {
+  void whenFindBalance_thenReturnsBalanceFromCheckpoints() {
     // given
-    var nonexistentCustomer = Optional.<Customer>empty();
+    var date = LocalDate.now().minusDays(1);
     // and
-    when(customerRepository.findByCpf(anyString())).thenReturn(nonexistentCustomer);
+    when(accountRepository.existsByIdAndOwnerCpf(1L, "xxx.xxx.xxx-xx")).thenReturn(true);
+    when(balanceCheckpoints.balanceAt(1L, date)).thenReturn(Money.of("10.00"));
+    // when
+    var balance = accountService.findBalance("xxx.xxx.xxx-xx", 1L, date);
     // then
-    assertThatThrownBy(() -> accountService.findAccount("xxx.xxx.xxx-xx", 1L))
-      .isInstanceOf(CustomerNotFoundException.class);
+    assertThat(balance).isEqualTo(Money.of("10.00"));
   }
 
   @Test
-  void givenNonexistentAccount_whenFindAccount_thenThrowsAccountNotFoundException() {
+  void givenAccountNotOwnedByCustomer_whenFindBalance_thenThrowsAccountNotFoundException() {
     // given
-    var nonexistentAccount = Optional.<Account>empty();
+    var customer = new Customer(1L, "", "", "", null);
     // and
-    when(customerRepository.findByCpf(anyString())).thenReturn(Optional.of(new Customer()));
-    when(accountRepository.findById(anyLong())).thenReturn(nonexistentAccount);
+    when(accountRepository.existsByIdAndOwnerCpf(anyLong(), anyString())).thenReturn(false);
+    when(customerCache.findByCpf(anyString())).thenReturn(Optional.of(CustomerSnapshot.of(customer)));
     // then
-    assertThatThrownBy(() -> accountService.findAccount("xxx.xxx.xxx-xx", 1L))
+    assertThatThrownBy(() -> accountService.findBalance("xxx.xxx.xxx-xx", 1L, LocalDate.now()))
       .isInstanceOf(AccountNotFoundException.class);
+    verify(balanceCheckpoints, never()).balanceAt(anyLong(), any());
   }
 
   @Test
-  void givenAccountNotBelongsToCustomer_whenFindAccount_thenThrowsAccountMismatchException() {
+  void givenNonexistentCustomer_whenFindAccount_thenThrowsCustomerNotFoundException() {
+    // given
+    var nonexistentCustomer = Optional.<CustomerSnapshot>empty();
+    // and
+    when(accountRepository.findRowByIdAndOwnerCpf(anyLong(), anyString())).thenReturn(Optional.empty());
+    when(customerCache.findByCpf(anyString())).thenReturn(nonexistentCustomer);
+    // then
+    assertThatThrownBy(() -> accountService.findAccount("xxx.xxx.xxx-xx", 1L))
+      .isInstanceOf(CustomerNotFoundException.class);
+  }
+
+  @Test
+  void givenAccountNotOwnedByCustomer_whenFindAccount_thenThrowsAccountNotFoundException() {
     // given
     var customer = new Customer(1L, "", "", "", null);
-    var account = new Account(1L, "bankname", new Customer(2L, "", "", "", null));
     // and
-    when(customerRepository.findByCpf(anyString())).thenReturn(Optional.of(customer));
-    when(accountRepository.findById(anyLong())).thenReturn(Optional.of(account));
+    when(accountRepository.findRowByIdAndOwnerCpf(anyLong(), anyString())).thenReturn(Optional.empty());
+    when(customerCache.findByCpf(anyString())).thenReturn(Optional.of(CustomerSnapshot.of(customer)));
     // then
     assertThatThrownBy(() -> accountService.findAccount("xxx.xxx.xxx-xx", 1L))
-      .isInstanceOf(AccountMismatchException.class);
+      .isInstanceOf(AccountNotFoundException.class);
   }
 
   @Test
@@ -120,12 +209,12 @@ class AccountServiceTest {
     var oldAccount = new Account(1L, "bankname", customer);
     var newAccount = new Account(1L, "edited", customer);
     // and
-    when(customerRepository.findByCpf(anyString())).thenReturn(Optional.of(customer));
+    when(customerCache.findByCpf(anyString())).thenReturn(Optional.of(CustomerSnapshot.of(customer)));
     when(accountRepository.findById(anyLong())).thenReturn(Optional.of(oldAccount));
-    when(bankClient.findBankNameByCode(anyInt())).thenReturn("edited");
+    when(bankClient.findBankNameByCodeAsync(anyInt())).thenReturn(Mono.just("edited"));
     when(accountRepository.save(any(Account.class))).then(returnsFirstArg());
     // when
-    var editedAccount = accountService.editAccount("xxx.xxx.xxx-xx", 1L, new AccountRequest(2));
+    var editedAccount = accountService.editAccount("xxx.xxx.xxx-xx", 1L, new AccountRequest(2)).block();
     // then
     assertThat(editedAccount).usingRecursiveComparison().isEqualTo(newAccount);
     verify(accountRepository, times(1)).save(any(Account.class));
@@ -134,9 +223,9 @@ class AccountServiceTest {
   @Test
   void givenNonexistentCustomer_whenEditAccount_thenThrowsCustomerNotFoundException() {
     // given
-    var nonexistentCustomer = Optional.<Customer>empty();
+    var nonexistentCustomer = Optional.<CustomerSnapshot>empty();
     // and
-    when(customerRepository.findByCpf(anyString())).thenReturn(nonexistentCustomer);
+    when(customerCache.findByCpf(anyString())).thenReturn(nonexistentCustomer);
     // then
     assertThatThrownBy(() -> accountService.editAccount("xxx.xxx.xxx-xx", 1L, new AccountRequest(2)))
       .isInstanceOf(CustomerNotFoundException.class);
@@ -149,7 +238,7 @@ class AccountServiceTest {
     var customer = new Customer();
     var nonexistentAccount = Optional.<Account>empty();
     // and
-    when(customerRepository.findByCpf(anyString())).thenReturn(Optional.of(customer));
+    when(customerCache.findByCpf(anyString())).thenReturn(Optional.of(CustomerSnapshot.of(customer)));
     when(accountRepository.findById(anyLong())).thenReturn(nonexistentAccount);
     // then
     assertThatThrownBy(() -> accountService.editAccount("xxx.xxx.xxx-xx", 1L, new AccountRequest(2)))
@@ -163,7 +252,7 @@ class AccountServiceTest {
     var customer = new Customer(1L, "", "", "", null);
     var oldAccount = new Account(1L, "bankname", new Customer(2L, "", "", "", null));
     // and
-    when(customerRepository.findByCpf(anyString())).thenReturn(Optional.of(customer));
+    when(customerCache.findByCpf(anyString())).thenReturn(Optional.of(CustomerSnapshot.of(customer)));
     when(accountRepository.findById(anyLong())).thenReturn(Optional.of(oldAccount));
     // then
     assertThatThrownBy(() -> accountService.editAccount("xxx.xxx.xxx-xx", 1L, new AccountRequest(2)))
@@ -177,20 +266,21 @@ class AccountServiceTest {
     var customer = new Customer();
     var account = new Account(1L, "bankname", customer);
     // and
-    when(customerRepository.findByCpf(anyString())).thenReturn(Optional.of(customer));
+    when(customerCache.findByCpf(anyString())).thenReturn(Optional.of(CustomerSnapshot.of(customer)));
     when(accountRepository.findById(anyLong())).thenReturn(Optional.of(account));
     // when
     accountService.removeAccount("xxx.xxx.xxx-xx", 1L);
     // then
     verify(accountRepository, times(1)).delete(any(Account.class));
+    verify(eventPublisher, times(1)).publishEvent(new AccountsRemovedEvent(List.of(1L)));
   }
 
   @Test
   void givenNonexistentCustomer_whenRemoveAccount_thenThrowsCustomerNotFoundException() {
     // given
-    var nonexistentCustomer = Optional.<Customer>empty();
+    var nonexistentCustomer = Optional.<CustomerSnapshot>empty();
     // and
-    when(customerRepository.findByCpf(anyString())).thenReturn(nonexistentCustomer);
+    when(customerCache.findByCpf(anyString())).thenReturn(nonexistentCustomer);
     // then
     assertThatThrownBy(() -> accountService.removeAccount("xxx.xxx.xxx-xx", 1L))
       .isInstanceOf(CustomerNotFoundException.class);
@@ -203,7 +293,7 @@ class AccountServiceTest {
     var customer = new Customer();
     var nonexistentAccount = Optional.<Account>empty();
     // and
-    when(customerRepository.findByCpf(anyString())).thenReturn(Optional.of(customer));
+    when(customerCache.findByCpf(anyString())).thenReturn(Optional.of(CustomerSnapshot.of(customer)));
     when(accountRepository.findById(anyLong())).thenReturn(nonexistentAccount);
     // then
     assertThatThrownBy(() -> accountService.removeAccount("xxx.xxx.xxx-xx", 1L))
@@ -217,7 +307,7 @@ class AccountServiceTest {
     var customer = new Customer();
     var account = new Account(1L, "bankname", new Customer(2L, "", "", "", null));
     // and
-    when(customerRepository.findByCpf(anyString())).thenReturn(Optional.of(customer));
+    when(customerCache.findByCpf(anyString())).thenReturn(Optional.of(CustomerSnapshot.of(customer)));
     when(accountRepository.findById(anyLong())).thenReturn(Optional.of(account));
     // then
     assertThatThrownBy(() -> accountService.removeAccount("xxx.xxx.xxx-xx", 1L))
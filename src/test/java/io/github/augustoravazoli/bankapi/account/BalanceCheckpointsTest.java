@@ -0,0 +1,104 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.times;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionOperations;
+import io.github.augustoravazoli.bankapi.Money;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceCheckpointsTest {
+
+  @Mock
+  private BalanceCheckpointRepository checkpointRepository;
+
+  private BalanceCheckpoints balanceCheckpoints;
+
+  @BeforeEach
+  void setUp() {
+    balanceCheckpoints = new BalanceCheckpoints(
+      checkpointRepository,
+      TransactionOperations.withoutTransaction()
+    );
+  }
+
+  @Test
+  void givenCheckpoint_whenBalanceAt_thenAddsChangesAfterCheckpoint() {
+    // given
+    var date = LocalDate.of(2023, 5, 10);
+    var checkpoint = new BalanceCheckpoint(1L, LocalDate.of(2023, 5, 8), Money.of("100.00"));
+    // and
+    when(checkpointRepository.findFirstByAccountIdAndClosingDateLessThanEqualOrderByClosingDateDesc(1L, date))
+      .thenReturn(Optional.of(checkpoint));
+    when(checkpointRepository.sumChanges(1L, LocalDate.of(2023, 5, 8), date)).thenReturn(-3000L);
+    // when
+    var balance = balanceCheckpoints.balanceAt(1L, date);
+    // then
+    assertThat(balance).isEqualTo(Money.of("70.00"));
+  }
+
+  @Test
+  void givenNoCheckpoint_whenBalanceAt_thenSumsWholeHistory() {
+    // given
+    var date = LocalDate.of(2023, 5, 10);
+    // and
+    when(checkpointRepository.findFirstByAccountIdAndClosingDateLessThanEqualOrderByClosingDateDesc(1L, date))
+      .thenReturn(Optional.empty());
+    when(checkpointRepository.sumChanges(1L, LocalDate.EPOCH, date)).thenReturn(1500L);
+    // when
+    var balance = balanceCheckpoints.balanceAt(1L, date);
+    // then
+    assertThat(balance).isEqualTo(Money.of("15.00"));
+  }
+
+  @Test
+  void givenLastClosingDate_whenCloseDaysUntil_thenClosesFollowingDaysInOrder() {
+    // given
+    when(checkpointRepository.findLastClosingDate()).thenReturn(Optional.of(LocalDate.of(2023, 5, 8)));
+    when(checkpointRepository.closeDay(any(LocalDate.class))).thenReturn(2);
+    // when
+    var checkpoints = balanceCheckpoints.closeDaysUntil(LocalDate.of(2023, 5, 10));
+    // then
+    assertThat(checkpoints).isEqualTo(4);
+    verify(checkpointRepository, times(1)).closeDay(LocalDate.of(2023, 5, 9));
+    verify(checkpointRepository, times(1)).closeDay(LocalDate.of(2023, 5, 10));
+    verify(checkpointRepository, never()).closeDay(LocalDate.of(2023, 5, 8));
+  }
+
+  @Test
+  void givenNoTransactions_whenCloseDaysUntil_thenClosesNothing() {
+    // given
+    when(checkpointRepository.findLastClosingDate()).thenReturn(Optional.empty());
+    when(checkpointRepository.findFirstTransactionDate()).thenReturn(Optional.empty());
+    // when
+    var checkpoints = balanceCheckpoints.closeDaysUntil(LocalDate.of(2023, 5, 10));
+    // then
+    assertThat(checkpoints).isZero();
+    verify(checkpointRepository, never()).closeDay(any(LocalDate.class));
+  }
+
+  @Test
+  void givenConcurrentInstance_whenCloseDaysUntil_thenStopsWithoutFailing() {
+    // given
+    when(checkpointRepository.findLastClosingDate()).thenReturn(Optional.of(LocalDate.of(2023, 5, 8)));
+    when(checkpointRepository.closeDay(any(LocalDate.class)))
+      .thenThrow(new DataIntegrityViolationException("duplicate checkpoint"));
+    // when
+    var checkpoints = balanceCheckpoints.closeDaysUntil(LocalDate.of(2023, 5, 10));
+    // then
+    assertThat(checkpoints).isZero();
+    verify(checkpointRepository, times(1)).closeDay(any(LocalDate.class));
+  }
+
+}
@@ -1,23 +1,33 @@
 package io.github.augustoravazoli.bankapi.account;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.web.reactive.function.client.WebClient;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import reactor.core.scheduler.Schedulers;
 
 class BankClientTest {
 
   public static MockWebServer mockedServer;
   private BankClient bankClient;
 
+  @TempDir
+  private Path tempDir;
+  private Path snapshotFile;
+
   @BeforeAll
   static void setUp() throws IOException {
     mockedServer = new MockWebServer();
@@ -31,9 +41,8 @@ class BankClientTest {
 
   @BeforeEach
   void initialize() {
-    var url = mockedServer.url("/").url().toString();
-    var properties = new BankClientProperties(url);
-    bankClient = new BankClient(WebClient.create(), properties);
+    snapshotFile = tempDir.resolve("banks.json");
+    bankClient = newBankClient(Duration.ofHours(1));
   }
 
   @AfterEach
@@ -78,4 +87,143 @@ class BankClientTest {
       .isInstanceOf(InvalidBankCodeException.class);
   }
 
+  @Test
+  void givenCachedBank_whenFindBankNameByCode_thenDoesNotCallRemote() throws Exception {
+    // given
+    var code = 1;
+    // and
+    mockedServer.enqueue(new MockResponse()
+      .setBody("{\"fullName\":\"bankname\",\"code\":1}")
+      .addHeader("Content-Type", "application/json")
+    );
+    bankClient.findBankNameByCode(code);
+    mockedServer.takeRequest();
+    var requestCount = mockedServer.getRequestCount();
+    // when
+    var bankName = bankClient.findBankNameByCode(code);
+    // then
+    assertThat(bankName).isEqualTo("bankname");
+    assertThat(mockedServer.getRequestCount()).isEqualTo(requestCount);
+  }
+
+  @Test
+  void givenUnknownBankCode_whenFindBankNameByCodeAgain_thenThrowsWithoutCallingRemote() throws Exception {
+    // given
+    var code = -1;
+    // and
+    mockedServer.enqueue(new MockResponse()
+      .setResponseCode(404)
+      .addHeader("Content-Type", "application/json")
+    );
+    assertThatThrownBy(() -> bankClient.findBankNameByCode(code))
+      .isInstanceOf(InvalidBankCodeException.class);
+    mockedServer.takeRequest();
+    var requestCount = mockedServer.getRequestCount();
+    // then
+    assertThatThrownBy(() -> bankClient.findBankNameByCode(code))
+      .isInstanceOf(InvalidBankCodeException.class);
+    assertThat(mockedServer.getRequestCount()).isEqualTo(requestCount);
+  }
+
+  @Test
+  void givenExpiredUnknownBankCode_whenFindBankNameByCodeAgain_thenCallsRemoteAgain() throws Exception {
+    // given
+    var code = -1;
+    bankClient = newBankClient(Duration.ZERO);
+    // and
+    mockedServer.enqueue(new MockResponse()
+      .setResponseCode(404)
+      .addHeader("Content-Type", "application/json")
+    );
+    mockedServer.enqueue(new MockResponse()
+      .setBody("{\"fullName\":\"new bank\",\"code\":-1}")
+      .addHeader("Content-Type", "application/json")
+    );
+    assertThatThrownBy(() -> bankClient.findBankNameByCode(code))
+      .isInstanceOf(InvalidBankCodeException.class);
+    mockedServer.takeRequest();
+    // when
+    var bankName = bankClient.findBankNameByCode(code);
+    // then
+    assertThat(bankName).isEqualTo("new bank");
+  }
+
+  @Test
+  void whenRefreshBanks_thenLoadsDirectoryAndWritesSnapshot() throws Exception {
+    // given
+    var json = "["
+      + "{\"fullName\":\"first bank\",\"code\":1},"
+      + "{\"fullName\":\"bank without code\",\"code\":null},"
+      + "{\"fullName\":\"second bank\",\"code\":2}"
+      + "]";
+    mockedServer.enqueue(new MockResponse()
+      .setBody(json)
+      .addHeader("Content-Type", "application/json")
+    );
+    // when
+    bankClient.refreshBanks();
+    var recordedRequest = mockedServer.takeRequest();
+    // then
+    assertThat(recordedRequest.getPath()).isEqualTo("/api/banks/v1");
+    assertThat(bankClient.findBankNameByCode(2)).isEqualTo("second bank");
+    assertThat(Files.readString(snapshotFile)).contains("first bank", "second bank");
+  }
+
+  @Test
+  void givenSnapshotFile_whenLoadSnapshot_thenFindsBankNameWithoutCallingRemote() throws Exception {
+    // given
+    Files.writeString(snapshotFile, "[{\"fullName\":\"bankname\",\"code\":1}]");
+    var requestCount = mockedServer.getRequestCount();
+    // when
+    bankClient.loadSnapshot();
+    // then
+    assertThat(bankClient.findBankNameByCode(1)).isEqualTo("bankname");
+    assertThat(mockedServer.getRequestCount()).isEqualTo(requestCount);
+  }
+
+  @Test
+  void whenFindBankNameByCodeAsync_thenReturnsBankName() throws Exception {
+    // given
+    var code = 1;
+    // and
+    mockedServer.enqueue(new MockResponse()
+      .setBody("{\"fullName\":\"bankname\",\"code\":1}")
+      .addHeader("Content-Type", "application/json")
+    );
+    // when
+    var bankName = bankClient.findBankNameByCodeAsync(code);
+    // then
+    assertThat(bankName.block()).isEqualTo("bankname");
+    assertThat(mockedServer.takeRequest().getPath()).isEqualTo("/api/banks/v1/" + code);
+  }
+
+  @Test
+  void givenConcurrentLookups_whenFindBankNameByCodeAsync_thenSharesSingleRequest() throws Exception {
+    // given
+    var code = 1;
+    // and
+    mockedServer.enqueue(new MockResponse()
+      .setBody("{\"fullName\":\"bankname\",\"code\":1}")
+      .addHeader("Content-Type", "application/json")
+      .setHeadersDelay(200, MILLISECONDS)
+    );
+    var requestCount = mockedServer.getRequestCount();
+    // when
+    var first = bankClient.findBankNameByCodeAsync(code).toFuture();
+    var second = bankClient.findBankNameByCodeAsync(code).toFuture();
+    // then
+    assertThat(first.get()).isEqualTo("bankname");
+    assertThat(second.get()).isEqualTo("bankname");
+    mockedServer.takeRequest();
+    assertThat(mockedServer.getRequestCount()).isEqualTo(requestCount + 1);
+  }
+
+  private BankClient newBankClient(Duration unknownCodesTtl) {
+    var url = mockedServer.url("/").url().toString();
+    var properties = new BankClientProperties(url, snapshotFile, 100, unknownCodesTtl);
+    return new BankClient(
+      WebClient.create(), new ObjectMapper(), Schedulers.boundedElastic(), properties
+    );
+  }
+
 }
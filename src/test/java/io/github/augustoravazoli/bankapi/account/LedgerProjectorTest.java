@@ -0,0 +1,91 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.times;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionOperations;
+import io.github.augustoravazoli.bankapi.Money;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerProjectorTest {
+
+  @Mock
+  private PendingLedgerEntryRepository pendingRepository;
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  private LedgerProjector projector;
+
+  @BeforeEach
+  void setUp() {
+    projector = new LedgerProjector(
+      pendingRepository,
+      accountRepository,
+      TransactionOperations.withoutTransaction(),
+      3
+    );
+  }
+
+  @Test
+  void whenProjectBatch_thenFoldsSumsPerAccountInIdOrderAndDeletesThem() {
+    // given
+    var entries = List.of(
+      new PendingLedgerEntry(2L, Money.of("10.00")),
+      new PendingLedgerEntry(1L, Money.of("1.00")),
+      new PendingLedgerEntry(2L, Money.of("-4.00"))
+    );
+    // and
+    when(pendingRepository.findOldestForUpdate(any(Pageable.class))).thenReturn(entries);
+    // when
+    var projected = projector.projectBatch();
+    // then
+    assertThat(projected).isEqualTo(3);
+    InOrder order = inOrder(accountRepository, pendingRepository);
+    order.verify(accountRepository).addToBalance(1L, 100L);
+    order.verify(accountRepository).addToBalance(2L, 600L);
+    order.verify(pendingRepository).deleteAllInBatch(entries);
+  }
+
+  @Test
+  void givenFullBatches_whenProject_thenRunsUntilBacklogIsDrained() {
+    // given
+    var fullBatch = List.of(
+      new PendingLedgerEntry(1L, Money.of("1.00")),
+      new PendingLedgerEntry(1L, Money.of("1.00")),
+      new PendingLedgerEntry(1L, Money.of("1.00"))
+    );
+    // and
+    when(pendingRepository.findOldestForUpdate(any(Pageable.class))).thenReturn(fullBatch, List.of());
+    // when
+    projector.project();
+    // then
+    verify(pendingRepository, times(2)).findOldestForUpdate(any(Pageable.class));
+    verify(accountRepository, times(1)).addToBalance(1L, 300L);
+  }
+
+  @Test
+  void givenNoPendingEntries_whenProjectBatch_thenTouchesNoAccount() {
+    // given
+    when(pendingRepository.findOldestForUpdate(any(Pageable.class))).thenReturn(List.of());
+    // when
+    var projected = projector.projectBatch();
+    // then
+    assertThat(projected).isZero();
+    verify(accountRepository, never()).addToBalance(anyLong(), anyLong());
+  }
+
+}
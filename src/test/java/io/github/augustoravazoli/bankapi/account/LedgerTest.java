@@ -0,0 +1,103 @@
+package io.github.augustoravazoli.bankapi.account;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import io.github.augustoravazoli.bankapi.Money;
+import io.github.augustoravazoli.bankapi.account.Ledger.Posting;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerTest {
+
+  private static record Balance(Long getId, long getBalance) implements AvailableBalance {}
+
+  @Mock
+  private LedgerEntryRepository entryRepository;
+
+  @Mock
+  private PendingLedgerEntryRepository pendingRepository;
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Captor
+  private ArgumentCaptor<List<LedgerEntry>> entries;
+
+  @Captor
+  private ArgumentCaptor<List<PendingLedgerEntry>> pendingEntries;
+
+  @InjectMocks
+  private Ledger ledger;
+
+  @Test
+  void whenPost_thenAppendsBalancedEntriesAndPendsOnlyCustomerAccounts() {
+    // when
+    ledger.post(List.of(
+      new Posting(11L, null, 1L, Money.of("10.00")),
+      new Posting(12L, 1L, 2L, Money.of("1.00"))
+    ));
+    // then
+    verify(entryRepository).saveAll(entries.capture());
+    verify(pendingRepository).saveAll(pendingEntries.capture());
+    assertThat(entries.getValue())
+      .extracting(LedgerEntry::getTransactionId, LedgerEntry::getAccountId, LedgerEntry::getAmount)
+      .containsExactly(
+        tuple(11L, Ledger.EXTERNAL_ACCOUNT_ID, Money.of("10.00").negate()),
+        tuple(11L, 1L, Money.of("10.00")),
+        tuple(12L, 1L, Money.of("1.00").negate()),
+        tuple(12L, 2L, Money.of("1.00"))
+      );
+    assertThat(pendingEntries.getValue())
+      .extracting(PendingLedgerEntry::getAccountId, PendingLedgerEntry::getAmount)
+      .containsExactly(
+        tuple(1L, Money.of("10.00")),
+        tuple(1L, Money.of("1.00").negate()),
+        tuple(2L, Money.of("1.00"))
+      );
+  }
+
+  @Test
+  void whenLockAvailableBalances_thenReadsBalancesOfLockedAccounts() {
+    // given
+    when(accountRepository.lockAll(List.of(1L, 2L))).thenReturn(List.of(1L));
+    when(pendingRepository.findAvailableBalances(List.of(1L)))
+      .thenReturn(List.of(new Balance(1L, 1000L)));
+    // when
+    var balances = ledger.lockAvailableBalances(List.of(1L, 2L));
+    // then
+    assertThat(balances).isEqualTo(Map.of(1L, Money.of("10.00")));
+  }
+
+  @Test
+  void givenNonexistentAccount_whenLockAvailableBalance_thenReturnsEmpty() {
+    // given
+    when(accountRepository.lockAll(List.of(1L))).thenReturn(List.of());
+    // when
+    var balance = ledger.lockAvailableBalance(1L);
+    // then
+    assertThat(balance).isEmpty();
+    verify(pendingRepository, never()).findAvailableBalances(anyCollection());
+  }
+
+  @Test
+  void givenNoAccounts_whenLockAvailableBalances_thenLocksNothing() {
+    // when
+    var balances = ledger.lockAvailableBalances(List.of());
+    // then
+    assertThat(balances).isEmpty();
+    verify(accountRepository, never()).lockAll(anyCollection());
+  }
+
+}
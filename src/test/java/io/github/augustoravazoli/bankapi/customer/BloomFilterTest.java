@@ -0,0 +1,40 @@
+package io.github.augustoravazoli.bankapi.customer;
+
+import java.util.stream.IntStream;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+  @Test
+  void givenAddedKeys_whenMightContain_thenReturnsTrueForAll() {
+    // given
+    var filter = new BloomFilter(10_000, 0.01);
+    IntStream.range(0, 10_000).forEach(i -> filter.put("customer" + i + "@example.com"));
+    // then
+    assertThat(IntStream.range(0, 10_000))
+      .allMatch(i -> filter.mightContain("customer" + i + "@example.com"));
+  }
+
+  @Test
+  void givenFilledFilter_whenMightContainUnknownKeys_thenFalsePositivesStayNearRate() {
+    // given
+    var filter = new BloomFilter(10_000, 0.01);
+    IntStream.range(0, 10_000).forEach(i -> filter.put(String.format("%011d", i)));
+    // when
+    var falsePositives = IntStream.range(10_000, 110_000)
+      .filter(i -> filter.mightContain(String.format("%011d", i)))
+      .count();
+    // then
+    assertThat(falsePositives).isLessThan(2_000);
+  }
+
+  @Test
+  void givenEmptyFilter_whenMightContain_thenReturnsFalse() {
+    // given
+    var filter = new BloomFilter(100, 0.01);
+    // then
+    assertThat(filter.mightContain("customer@example.com")).isFalse();
+  }
+
+}
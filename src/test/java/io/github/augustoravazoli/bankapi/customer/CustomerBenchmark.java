@@ -0,0 +1,86 @@
+package io.github.augustoravazoli.bankapi.customer;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CustomerBenchmark {
+
+  private static final String CPF = "52998224725";
+
+  private final CustomerMapper customerMapper = new CustomerMapperImpl();
+
+  private Customer customer;
+  private CustomerRequest request;
+  private CustomerService customerService;
+  private CustomerController customerController;
+
+  @Setup
+  public void setUp() {
+    customer = new Customer(1L, "benchmark", "benchmark@example.com", CPF, LocalDate.of(1990, 1, 1));
+    request = new CustomerRequest("benchmark", "benchmark@example.com", null, LocalDate.of(1990, 1, 1));
+    // answers from memory, so only the controller's own work is measured
+    customerService = new CustomerService(null, null, null, null, null, null) {
+
+      @Override
+      public Customer findCustomer(String cpf) {
+        return customer;
+      }
+
+      @Override
+      public Customer editCustomer(String cpf, Customer newCustomer) {
+        return customer;
+      }
+
+    };
+    customerController = new CustomerController(customerService, customerMapper, null);
+  }
+
+  @Benchmark
+  public Customer toEntity() {
+    return customerMapper.toEntity(request);
+  }
+
+  @Benchmark
+  public CustomerResponse toResponse() {
+    return customerMapper.toResponse(customer);
+  }
+
+  @Benchmark
+  public ResponseEntity<CustomerResponse> findCustomerPipeline() {
+    return customerController.findCustomer(CPF);
+  }
+
+  @Benchmark
+  public ResponseEntity<CustomerResponse> findCustomerDirect() {
+    return ResponseEntity.ok().body(customerMapper.toResponse(customerService.findCustomer(CPF)));
+  }
+
+  @Benchmark
+  public ResponseEntity<CustomerResponse> editCustomerPipeline() {
+    return customerController.editCustomer(CPF, request);
+  }
+
+  @Benchmark
+  public ResponseEntity<CustomerResponse> editCustomerDirect() {
+    var editedCustomer = customerService.editCustomer(CPF, customerMapper.toEntity(request));
+    return ResponseEntity.ok().body(customerMapper.toResponse(editedCustomer));
+  }
+
+}
@@ -0,0 +1,86 @@
+package io.github.augustoravazoli.bankapi.customer;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.times;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerCacheTest {
+
+  @Mock
+  private CustomerRepository customerRepository;
+
+  private CustomerCache customerCache;
+
+  @BeforeEach
+  void setUp() {
+    customerCache = new CustomerCache(customerRepository, new CustomerCacheProperties(100));
+  }
+
+  @Test
+  void givenCachedCustomer_whenFindByCpf_thenDoesNotQueryAgain() {
+    // given
+    var customer = new Customer(
+      1L, "customer", "customer@example.com", "xxx.xxx.xxx-xx", LocalDate.of(1990, 9, 9)
+    );
+    // and
+    when(customerRepository.findByCpf("xxx.xxx.xxx-xx")).thenReturn(Optional.of(customer));
+    // when
+    customerCache.findByCpf("xxx.xxx.xxx-xx");
+    var snapshot = customerCache.findByCpf("xxx.xxx.xxx-xx");
+    // then
+    assertThat(snapshot).contains(CustomerSnapshot.of(customer));
+    assertThat(customerCache.getMisses()).isEqualTo(1);
+    assertThat(customerCache.getHits()).isEqualTo(1);
+    verify(customerRepository, times(1)).findByCpf("xxx.xxx.xxx-xx");
+  }
+
+  @Test
+  void givenEvictedCustomer_whenFindByCpf_thenReturnsReloadedCustomer() {
+    // given
+    var customer = new Customer(
+      1L, "customer", "customer@example.com", "xxx.xxx.xxx-xx", LocalDate.of(1990, 9, 9)
+    );
+    var editedCustomer = new Customer(
+      1L, "edited", "edited@example.com", "xxx.xxx.xxx-xx", LocalDate.of(2000, 2, 2)
+    );
+    // and
+    when(customerRepository.findByCpf("xxx.xxx.xxx-xx"))
+      .thenReturn(Optional.of(customer))
+      .thenReturn(Optional.of(editedCustomer));
+    customerCache.findByCpf("xxx.xxx.xxx-xx");
+    // when
+    customerCache.evict("xxx.xxx.xxx-xx");
+    var snapshot = customerCache.findByCpf("xxx.xxx.xxx-xx");
+    // then
+    assertThat(snapshot).contains(CustomerSnapshot.of(editedCustomer));
+    verify(customerRepository, times(2)).findByCpf("xxx.xxx.xxx-xx");
+  }
+
+  @Test
+  void givenNonexistentCustomer_whenFindByCpf_thenDoesNotCacheAbsence() {
+    // given
+    var customer = new Customer(
+      1L, "customer", "customer@example.com", "xxx.xxx.xxx-xx", LocalDate.of(1990, 9, 9)
+    );
+    // and
+    when(customerRepository.findByCpf("xxx.xxx.xxx-xx"))
+      .thenReturn(Optional.empty())
+      .thenReturn(Optional.of(customer));
+    // when
+    var missing = customerCache.findByCpf("xxx.xxx.xxx-xx");
+    var created = customerCache.findByCpf("xxx.xxx.xxx-xx");
+    // then
+    assertThat(missing).isEmpty();
+    assertThat(created).contains(CustomerSnapshot.of(customer));
+  }
+
+}
@@ -1,9 +1,13 @@
 package io.github.augustoravazoli.bankapi.customer;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.endsWith;
+import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -13,10 +17,13 @@ import static org.springframework.restdocs.payload.PayloadDocumentation.requestF
 import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
 import static org.springframework.http.HttpHeaders.LOCATION;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
@@ -24,9 +31,14 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import io.github.augustoravazoli.bankapi.ControllerTestTemplate;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Import(CustomerMapperImpl.class)
 @WebMvcTest(CustomerController.class)
@@ -35,6 +47,12 @@ class CustomerControllerTest extends ControllerTestTemplate {
   @MockBean
   private CustomerService customerService;
 
+  @MockBean
+  private CustomerImporter customerImporter;
+
+  @Autowired
+  private MeterRegistry registry;
+
   @Test
   void whenCreateCustomer_thenReturns201AndCreatedCustomer() throws Exception {
     // given
@@ -120,6 +138,24 @@ class CustomerControllerTest extends ControllerTestTemplate {
     );
   }
 
+  @Test
+  void givenNonexistentCustomer_whenFindCustomer_thenReturns404AndCountsError() throws Exception {
+    // given
+    when(customerService.findCustomer(anyString())).thenThrow(new CustomerNotFoundException());
+    // when
+    mvc.perform(
+      get("/api/v1/customers/{cpf}", CPF)
+    )
+    // then
+    .andExpect(status().isNotFound());
+    // and
+    var errors = registry.get("bankapi.errors")
+      .tag("exception", "CustomerNotFoundException")
+      .tag("status", "404")
+      .counter();
+    assertThat(errors.count()).isEqualTo(1);
+  }
+
   @Test
   void whenEditCustomer_thenReturns200AndEditedCustomer() throws Exception {
     // given
@@ -167,6 +203,80 @@ class CustomerControllerTest extends ControllerTestTemplate {
     .andDo(document("customer/remove"));
   }
 
+  @Test
+  void whenImportCustomers_thenReturns200AndStreamsRejections() throws Exception {
+    // given
+    var upload = "{\"name\":\"customer\",\"email\":\"customer@example.com\",\"cpf\":\"" + CPF
+      + "\",\"birthDate\":\"1990-09-09\"}\n"
+      + "{\"name\":\"taken\",\"email\":\"customer@example.com\",\"cpf\":\"" + CPF
+      + "\",\"birthDate\":\"1990-09-09\"}\n"
+      + "{\"name\":\"\",\"email\":\"customer@example.com\",\"cpf\":\"" + CPF
+      + "\",\"birthDate\":\"1990-09-09\"}\n";
+    var report = "{\"line\":3,\"message\":\"validation errors on your request\","
+      + "\"errors\":[{\"field\":\"name\",\"message\":\"must not be blank\"}]}\n"
+      + "{\"line\":2,\"message\":\"cpf number repeated in this upload\"}\n";
+    // and
+    when(customerImporter.isSupported()).thenReturn(true);
+    doAnswer(invocation -> {
+      invocation.getArgument(2, OutputStream.class).write(report.getBytes());
+      return null;
+    }).when(customerImporter).importCustomers(any(), eq(CustomerImportFormat.NDJSON), any());
+    // when
+    var result = mvc.perform(post("/api/v1/customers/import")
+      .content(upload)
+      .contentType(APPLICATION_NDJSON)
+    )
+    .andExpect(request().asyncStarted())
+    .andReturn();
+    // then
+    mvc.perform(asyncDispatch(result))
+      .andExpectAll(
+        status().isOk(),
+        header().string("Content-Type", "application/x-ndjson"),
+        content().string(report)
+      )
+      .andDo(document("customer/import"));
+  }
+
+  @Test
+  void whenImportCustomersAsCsv_thenReadsCsvUpload() throws Exception {
+    // given
+    var upload = "name,email,cpf,birthDate\ncustomer,customer@example.com," + CPF + ",1990-09-09\n";
+    // and
+    when(customerImporter.isSupported()).thenReturn(true);
+    // when
+    var result = mvc.perform(post("/api/v1/customers/import")
+      .content(upload)
+      .contentType("text/csv")
+    )
+    .andExpect(request().asyncStarted())
+    .andReturn();
+    // then
+    mvc.perform(asyncDispatch(result))
+      .andExpectAll(
+        status().isOk(),
+        content().string("")
+      );
+    verify(customerImporter).importCustomers(any(InputStream.class), eq(CustomerImportFormat.CSV), any());
+  }
+
+  @Test
+  void givenDatabaseWithoutCopy_whenImportCustomers_thenReturns501() throws Exception {
+    // given
+    when(customerImporter.isSupported()).thenReturn(false);
+    // when
+    mvc.perform(post("/api/v1/customers/import")
+      .content("name,email,cpf,birthDate\n")
+      .contentType("text/csv")
+    )
+    // then
+    .andExpectAll(
+      status().isNotImplemented(),
+      jsonPath("$.message", is("bulk import needs a postgresql database"))
+    );
+    verify(customerImporter, never()).importCustomers(any(), any(), any());
+  }
+
   private RequestFieldsSnippet customerSnippet() {
     var fields = new ConstrainedFields(CustomerRequest.class);
     return requestFields(
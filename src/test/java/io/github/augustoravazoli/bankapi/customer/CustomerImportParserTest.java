@@ -0,0 +1,77 @@
+package io.github.augustoravazoli.bankapi.customer;
+
+import java.time.LocalDate;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.validation.Validation;
+
+class CustomerImportParserTest {
+
+  private static final String CPF = "529.982.247-25";
+
+  private CustomerImportParser parser;
+
+  @BeforeEach
+  void setUp() {
+    var mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    parser = new CustomerImportParser(mapper, Validation.buildDefaultValidatorFactory().getValidator());
+  }
+
+  @Test
+  void givenValidJsonLine_whenParse_thenReturnsCustomer() {
+    // given
+    var text = "{\"name\":\"customer\",\"email\":\"customer@example.com\",\"cpf\":\"" + CPF
+      + "\",\"birthDate\":\"1990-09-09\"}";
+    // when
+    var row = parser.parse(1, text, CustomerImportFormat.NDJSON);
+    // then
+    assertThat(row.isRejected()).isFalse();
+    assertThat(row.customer()).isEqualTo(
+      new CustomerRequest("customer", "customer@example.com", CPF, LocalDate.of(1990, 9, 9))
+    );
+  }
+
+  @Test
+  void givenValidCsvLine_whenParse_thenReturnsCustomer() {
+    // given
+    var text = "customer, customer@example.com," + CPF + ",1990-09-09";
+    // when
+    var row = parser.parse(2, text, CustomerImportFormat.CSV);
+    // then
+    assertThat(row.isRejected()).isFalse();
+    assertThat(row.customer()).isEqualTo(
+      new CustomerRequest("customer", "customer@example.com", CPF, LocalDate.of(1990, 9, 9))
+    );
+  }
+
+  @Test
+  void givenInvalidFields_whenParse_thenRejectsWithSameRulesAsCreate() {
+    // given
+    var text = ",not-an-email,123.456.789-00," + LocalDate.now().plusDays(1);
+    // when
+    var row = parser.parse(3, text, CustomerImportFormat.CSV);
+    // then
+    assertThat(row.isRejected()).isTrue();
+    assertThat(row.rejection().line()).isEqualTo(3);
+    assertThat(row.rejection().errors())
+      .extracting(CustomerImportRejection.FieldError::field)
+      .containsExactly("birthDate", "cpf", "email", "name");
+  }
+
+  @Test
+  void givenMalformedLines_whenParse_thenRejectsAsMalformed() {
+    // then
+    assertThat(parser.parse(1, "{broken", CustomerImportFormat.NDJSON).rejection())
+      .isEqualTo(new CustomerImportRejection(1, "malformed row"));
+    assertThat(parser.parse(2, "null", CustomerImportFormat.NDJSON).rejection())
+      .isEqualTo(new CustomerImportRejection(2, "malformed row"));
+    assertThat(parser.parse(3, "customer,customer@example.com", CustomerImportFormat.CSV).rejection())
+      .isEqualTo(new CustomerImportRejection(3, "malformed row"));
+    assertThat(parser.parse(4, "customer,customer@example.com," + CPF + ",09/09/1990", CustomerImportFormat.CSV).rejection())
+      .isEqualTo(new CustomerImportRejection(4, "malformed row"));
+  }
+
+}
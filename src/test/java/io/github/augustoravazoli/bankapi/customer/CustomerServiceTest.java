@@ -1,21 +1,33 @@
 package io.github.augustoravazoli.bankapi.customer;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.time.Duration;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyLong;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import io.github.augustoravazoli.bankapi.RetryExecutor;
+import io.github.augustoravazoli.bankapi.account.AccountRepository;
+import io.github.augustoravazoli.bankapi.account.AccountsRemovedEvent;
 
 @ExtendWith(MockitoExtension.class)
 class CustomerServiceTest {
@@ -23,6 +35,21 @@ class CustomerServiceTest {
   @Mock
   private CustomerRepository customerRepository;
 
+  @Mock
+  private CustomerCache customerCache;
+
+  @Mock
+  private CustomerKeyFilter customerKeyFilter;
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Spy
+  private RetryExecutor retryExecutor = new RetryExecutor(3, Duration.ZERO, Duration.ZERO);
+
   @InjectMocks
   private CustomerService customerService;
 
@@ -33,8 +60,26 @@ class CustomerServiceTest {
       1L, "customer", "customer@example.com", "xxx.xxx.xxx-xx", LocalDate.of(1990, 9, 9)
     );
     // and
+    when(customerRepository.save(any(Customer.class))).then(returnsFirstArg());
+    // when
+    var savedCustomer = customerService.createCustomer(newCustomer);
+    // then
+    assertThat(savedCustomer).isEqualTo(newCustomer);
+    verify(customerRepository, times(1)).save(any(Customer.class));
+    verify(customerRepository, never()).existsByEmail(anyString());
+    verify(customerRepository, never()).existsByCpf(anyString());
+    verify(customerKeyFilter, times(1)).add("customer@example.com", "xxx.xxx.xxx-xx");
+  }
+
+  @Test
+  void givenFilterFalsePositive_whenCreateCustomer_thenReturnsCreatedCustomer() {
+    // given
+    var newCustomer = new Customer(
+      1L, "customer", "customer@example.com", "xxx.xxx.xxx-xx", LocalDate.of(1990, 9, 9)
+    );
+    // and
+    when(customerKeyFilter.mightContainEmail(anyString())).thenReturn(true);
     when(customerRepository.existsByEmail(anyString())).thenReturn(false);
-    when(customerRepository.existsByCpf(anyString())).thenReturn(false);
     when(customerRepository.save(any(Customer.class))).then(returnsFirstArg());
     // when
     var savedCustomer = customerService.createCustomer(newCustomer);
@@ -43,6 +88,35 @@ class CustomerServiceTest {
     verify(customerRepository, times(1)).save(any(Customer.class));
   }
 
+  @Test
+  void givenEmailTakenUnknownToFilter_whenCreateCustomer_thenThrowsEmailTakenException() {
+    // given
+    var newCustomer = new Customer(
+      1L, "customer", "customer@example.com", "xxx.xxx.xxx-xx", LocalDate.of(1990, 9, 9)
+    );
+    // and
+    when(customerRepository.save(any(Customer.class)))
+      .thenThrow(uniqueViolation(Customer.EMAIL_CONSTRAINT));
+    // then
+    assertThatThrownBy(() -> customerService.createCustomer(newCustomer))
+      .isInstanceOf(EmailTakenException.class);
+  }
+
+  @Test
+  void givenCpfTakenUnknownToFilter_whenCreateCustomer_thenThrowsCpfTakenException() {
+    // given
+    var newCustomer = new Customer(
+      1L, "customer", "customer@example.com", "xxx.xxx.xxx-xx", LocalDate.of(1990, 9, 9)
+    );
+    // and
+    when(customerRepository.save(any(Customer.class)))
+      .thenThrow(uniqueViolation("PUBLIC." + Customer.CPF_CONSTRAINT.toUpperCase() + "_INDEX_5"));
+    // then
+    assertThatThrownBy(() -> customerService.createCustomer(newCustomer))
+      .isInstanceOf(CpfTakenException.class);
+    verify(customerKeyFilter, never()).add(anyString(), anyString());
+  }
+
   @Test
   void givenEmailTaken_whenCreateCustomer_thenThrowsEmailTakenException() {
     // given
@@ -50,6 +124,7 @@ class CustomerServiceTest {
       1L, "customer", "customer@example.com", "xxx.xxx.xxx-xx", LocalDate.of(1990, 9, 9)
     );
     // and
+    when(customerKeyFilter.mightContainEmail(anyString())).thenReturn(true);
     when(customerRepository.existsByEmail(anyString())).thenReturn(true);
     // then
     assertThatThrownBy(() -> customerService.createCustomer(newCustomer))
@@ -64,7 +139,7 @@ class CustomerServiceTest {
       1L, "customer", "customer@example.com", "xxx.xxx.xxx-xx", LocalDate.of(1990, 9, 9)
     );
     // and
-    when(customerRepository.existsByEmail(anyString())).thenReturn(false);
+    when(customerKeyFilter.mightContainCpf(anyString())).thenReturn(true);
     when(customerRepository.existsByCpf(anyString())).thenReturn(true);
     // then
     assertThatThrownBy(() -> customerService.createCustomer(newCustomer))
@@ -115,6 +190,30 @@ class CustomerServiceTest {
     // then
     assertThat(editedCustomer).usingRecursiveComparison().isEqualTo(newCustomer);
     verify(customerRepository, times(1)).save(any(Customer.class));
+    verify(customerCache, times(1)).evict("xxx.xxx.xxx-xx");
+  }
+
+  @Test
+  void givenConcurrentModification_whenEditCustomer_thenRetriesWithReloadedCustomer() {
+    // given
+    var oldCustomer = new Customer(
+      1L, "customer", "customer@example.com", "xxx.xxx.xxx-xx", LocalDate.of(1990, 9, 9)
+    );
+    var newCustomer = new Customer(
+      1L, "edited", "edited@example.com", "xxx.xxx.xxx-xx", LocalDate.of(2000, 2, 2)
+    );
+    // and
+    when(customerRepository.findByCpf(anyString())).thenReturn(Optional.of(oldCustomer));
+    when(customerRepository.existsByEmail(anyString())).thenReturn(false);
+    when(customerRepository.save(any(Customer.class)))
+      .thenThrow(new ObjectOptimisticLockingFailureException(Customer.class, 1L))
+      .then(returnsFirstArg());
+    // when
+    var editedCustomer = customerService.editCustomer("xxx.xxx.xxx-xx", newCustomer);
+    // then
+    assertThat(editedCustomer).usingRecursiveComparison().isEqualTo(newCustomer);
+    verify(customerRepository, times(2)).findByCpf(anyString());
+    verify(customerRepository, times(2)).save(any(Customer.class));
   }
 
   @Test
@@ -150,23 +249,34 @@ class CustomerServiceTest {
   }
 
   @Test
-  void whenRemoveCustomer_thenReturnsNothing() {
+  void whenRemoveCustomer_thenDeletesAccountsAndCustomerInBulk() {
     // given
-    when(customerRepository.existsByCpf(anyString())).thenReturn(true);
+    when(customerRepository.lockIdByCpf(anyString())).thenReturn(Optional.of(1L));
+    when(accountRepository.findIdsByOwnerId(1L)).thenReturn(List.of(10L, 11L));
     // when
     customerService.removeCustomer("xxx.xxx.xxx-xx");
     // then
-    verify(customerRepository, times(1)).deleteByCpf(anyString());
+    verify(accountRepository, times(1)).deleteAllByOwnerIdInBulk(1L);
+    verify(customerRepository, times(1)).deleteAllByIdInBatch(List.of(1L));
+    verify(eventPublisher, times(1)).publishEvent(new AccountsRemovedEvent(List.of(10L, 11L)));
+    verify(customerCache, times(1)).evict("xxx.xxx.xxx-xx");
   }
 
   @Test
   void givenNonexistentCustomer_whenRemoveCustomer_thenThrowsCustomerNotFoundException() {
     // given
-    when(customerRepository.existsByCpf(anyString())).thenReturn(false);
+    when(customerRepository.lockIdByCpf(anyString())).thenReturn(Optional.empty());
     // then
     assertThatThrownBy(() -> customerService.removeCustomer("xxx.xxx.xxx-xx"))
       .isInstanceOf(CustomerNotFoundException.class);
-    verify(customerRepository, never()).deleteByCpf(anyString());
+    verify(accountRepository, never()).deleteAllByOwnerIdInBulk(anyLong());
+    verify(customerRepository, never()).deleteAllByIdInBatch(any());
+    verify(eventPublisher, never()).publishEvent(any());
+  }
+
+  private static DataIntegrityViolationException uniqueViolation(String constraintName) {
+    var cause = new ConstraintViolationException("unique violation", new SQLException(), constraintName);
+    return new DataIntegrityViolationException("could not execute statement", cause);
   }
 
 }
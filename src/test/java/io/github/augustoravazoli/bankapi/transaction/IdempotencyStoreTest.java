@@ -0,0 +1,203 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.times;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import io.github.augustoravazoli.bankapi.Money;
+import io.github.augustoravazoli.bankapi.account.InsufficientBalanceException;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+
+  @Mock
+  private TransactionRepository transactionRepository;
+
+  @Mock
+  private UnaryOperator<Transaction> create;
+
+  private static class MutableClock extends Clock {
+
+    private Instant now = Instant.parse("2023-05-01T10:00:00Z");
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+  }
+
+  private final MutableClock clock = new MutableClock();
+
+  private IdempotencyStore store;
+
+  @BeforeEach
+  void setUp() {
+    store = newStore(2);
+  }
+
+  @Test
+  void givenNewKey_whenExecute_thenCreatesTransactionWithKey() {
+    // given
+    var newTransaction = transfer(Money.of("10.00"));
+    // and
+    when(create.apply(newTransaction)).thenReturn(newTransaction);
+    // when
+    var outcome = store.execute("a", TransactionType.TRANSFER, newTransaction, create);
+    // then
+    assertThat(outcome).isEqualTo(new IdempotencyStore.Outcome(newTransaction, false));
+    assertThat(newTransaction.getIdempotencyKey()).isEqualTo("a");
+    verify(transactionRepository, never()).findByIdempotencyKey(anyString());
+  }
+
+  @Test
+  void givenRetriedKey_whenExecute_thenReplaysFromMemory() {
+    // given
+    var firstTransaction = transfer(Money.of("10.00"));
+    // and
+    when(create.apply(firstTransaction)).thenReturn(firstTransaction);
+    store.execute("a", TransactionType.TRANSFER, firstTransaction, create);
+    // when
+    var outcome = store.execute("a", TransactionType.TRANSFER, transfer(Money.of("10.00")), create);
+    // then
+    assertThat(outcome).isEqualTo(new IdempotencyStore.Outcome(firstTransaction, true));
+    verify(create, times(1)).apply(any(Transaction.class));
+  }
+
+  @Test
+  void givenKeyUsedForAnotherRequest_whenExecute_thenThrowsIdempotencyKeyReusedException() {
+    // given
+    var firstTransaction = transfer(Money.of("10.00"));
+    // and
+    when(create.apply(firstTransaction)).thenReturn(firstTransaction);
+    store.execute("a", TransactionType.TRANSFER, firstTransaction, create);
+    // then
+    assertThatThrownBy(() -> store.execute("a", TransactionType.TRANSFER, transfer(Money.of("1.00")), create))
+      .isInstanceOf(IdempotencyKeyReusedException.class);
+  }
+
+  @Test
+  void givenKeyStoredInDatabase_whenExecute_thenReplaysStoredTransaction() {
+    // given
+    var storedTransaction = transfer(Money.of("10.00"));
+    // and
+    when(create.apply(any(Transaction.class))).thenThrow(new IdempotencyKeyUsedException(storedTransaction));
+    // when
+    var outcome = store.execute("a", TransactionType.TRANSFER, transfer(Money.of("10.00")), create);
+    // then
+    assertThat(outcome).isEqualTo(new IdempotencyStore.Outcome(storedTransaction, true));
+  }
+
+  @Test
+  void givenKeyStoredInDatabaseForAnotherRequest_whenExecute_thenThrowsIdempotencyKeyReusedException() {
+    // given
+    var storedTransaction = transfer(Money.of("10.00"));
+    // and
+    when(create.apply(any(Transaction.class))).thenThrow(new IdempotencyKeyUsedException(storedTransaction));
+    // then
+    assertThatThrownBy(() -> store.execute("a", TransactionType.WITHDRAWAL, transfer(Money.of("10.00")), create))
+      .isInstanceOf(IdempotencyKeyReusedException.class);
+  }
+
+  @Test
+  void givenKeyStoredConcurrently_whenExecute_thenReplaysStoredTransaction() {
+    // given
+    var storedTransaction = transfer(Money.of("10.00"));
+    // and
+    when(create.apply(any(Transaction.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+    when(transactionRepository.findByIdempotencyKey("a")).thenReturn(Optional.of(storedTransaction));
+    // when
+    var outcome = store.execute("a", TransactionType.TRANSFER, transfer(Money.of("10.00")), create);
+    // then
+    assertThat(outcome).isEqualTo(new IdempotencyStore.Outcome(storedTransaction, true));
+  }
+
+  @Test
+  void givenFailedRequest_whenExecuteAgain_thenRunsItAgain() {
+    // given
+    var newTransaction = transfer(Money.of("10.00"));
+    // and
+    when(create.apply(newTransaction)).thenThrow(new InsufficientBalanceException()).thenReturn(newTransaction);
+    assertThatThrownBy(() -> store.execute("a", TransactionType.TRANSFER, newTransaction, create))
+      .isInstanceOf(InsufficientBalanceException.class);
+    // when
+    var outcome = store.execute("a", TransactionType.TRANSFER, newTransaction, create);
+    // then
+    assertThat(outcome.replayed()).isFalse();
+    verify(create, times(2)).apply(newTransaction);
+  }
+
+  @Test
+  void givenExpiredKey_whenExecute_thenRunsItThroughTheService() {
+    // given
+    var newTransaction = transfer(Money.of("10.00"));
+    // and
+    when(create.apply(any(Transaction.class)))
+      .thenReturn(newTransaction)
+      .thenThrow(new IdempotencyKeyUsedException(newTransaction));
+    store.execute("a", TransactionType.TRANSFER, newTransaction, create);
+    // and
+    clock.now = clock.now.plus(Duration.ofHours(2));
+    // when
+    var outcome = store.execute("a", TransactionType.TRANSFER, transfer(Money.of("10.00")), create);
+    // then
+    assertThat(outcome).isEqualTo(new IdempotencyStore.Outcome(newTransaction, true));
+    verify(create, times(2)).apply(any(Transaction.class));
+  }
+
+  @Test
+  void givenFullStore_whenExecute_thenEvictsOldestKey() {
+    // given
+    when(create.apply(any(Transaction.class))).then(invocation -> invocation.getArgument(0));
+    // and
+    for (var key : new String[] { "a", "b", "c" }) {
+      store.execute(key, TransactionType.TRANSFER, transfer(Money.of("10.00")), create);
+    }
+    // when
+    var evicted = store.execute("a", TransactionType.TRANSFER, transfer(Money.of("10.00")), create);
+    var kept = store.execute("c", TransactionType.TRANSFER, transfer(Money.of("10.00")), create);
+    // then
+    assertThat(evicted.replayed()).isFalse();
+    assertThat(kept.replayed()).isTrue();
+  }
+
+  private IdempotencyStore newStore(int maxKeys) {
+    return new IdempotencyStore(
+      transactionRepository,
+      new IdempotencyProperties(maxKeys, Duration.ofHours(1)),
+      clock
+    );
+  }
+
+  private static Transaction transfer(Money amount) {
+    return new Transaction(null, amount, TransactionType.TRANSFER, 1L, 2L);
+  }
+
+}
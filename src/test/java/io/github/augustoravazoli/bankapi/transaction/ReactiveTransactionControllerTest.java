@@ -0,0 +1,201 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.time.LocalDate;
+import java.util.List;
+import static org.hamcrest.Matchers.endsWith;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import static org.springframework.http.HttpHeaders.LOCATION;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import io.github.augustoravazoli.bankapi.ControllerTestTemplate;
+import io.github.augustoravazoli.bankapi.Money;
+import io.github.augustoravazoli.bankapi.account.InsufficientBalanceException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Import({ TransactionMapperImpl.class, StatementCursorCodec.class })
+@WebMvcTest(
+  controllers = { ReactiveTransactionController.class, TransactionController.class },
+  properties = "bankapi.transactions.reactive=true"
+)
+class ReactiveTransactionControllerTest extends ControllerTestTemplate {
+
+  @MockBean
+  private ReactiveTransactionService transactionService;
+
+  @MockBean
+  private TransactionService blockingTransactionService;
+
+  @MockBean
+  private TransactionExporter transactionExporter;
+
+  @MockBean
+  private IdempotencyStore idempotencyStore;
+
+  @Test
+  void whenCreateDepositTransaction_thenReturns201AndCreatedTransaction() throws Exception {
+    // given
+    var newTransaction = new TransactionRequest(Money.of("10.00"), 1L, null);
+    var savedTransaction = new Transaction(1L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null);
+    var returnedTransaction = new TransactionResponse(
+      1L, Money.of("10.00"), TransactionType.DEPOSIT, LocalDate.now(), 1L, null
+    );
+    // and
+    when(transactionService.createDepositTransaction(any(Transaction.class)))
+      .thenReturn(Mono.just(savedTransaction));
+    // when
+    var result = mvc.perform(post("/api/v1/transactions/deposits")
+      .content(toJson(newTransaction))
+      .contentType(APPLICATION_JSON)
+    )
+    .andExpect(request().asyncStarted())
+    .andReturn();
+    // then
+    mvc.perform(asyncDispatch(result))
+    .andExpectAll(
+      status().isCreated(),
+      header().string(LOCATION, endsWith("/api/v1/transactions/deposits/" + returnedTransaction.id())),
+      content().json(toJson(returnedTransaction))
+    );
+  }
+
+  @Test
+  void givenInsufficientBalance_whenCreateWithdrawalTransaction_thenReturns422() throws Exception {
+    // given
+    var newTransaction = new TransactionRequest(Money.of("10.00"), 1L, null);
+    // and
+    when(transactionService.createWithdrawalTransaction(any(Transaction.class)))
+      .thenReturn(Mono.error(new InsufficientBalanceException()));
+    // when
+    var result = mvc.perform(post("/api/v1/transactions/withdrawals")
+      .content(toJson(newTransaction))
+      .contentType(APPLICATION_JSON)
+    )
+    .andExpect(request().asyncStarted())
+    .andReturn();
+    // then
+    mvc.perform(asyncDispatch(result))
+    .andExpect(status().isUnprocessableEntity());
+  }
+
+  @Test
+  void whenCreateTransferTransaction_thenReturns201AndCreatedTransaction() throws Exception {
+    // given
+    var newTransaction = new TransactionRequest(Money.of("10.00"), 1L, 2L);
+    var savedTransaction = new Transaction(1L, Money.of("10.00"), TransactionType.TRANSFER, 1L, 2L);
+    var returnedTransaction = new TransactionResponse(
+      1L, Money.of("10.00"), TransactionType.TRANSFER, LocalDate.now(), 1L, 2L
+    );
+    // and
+    when(transactionService.createTransferTransaction(any(Transaction.class)))
+      .thenReturn(Mono.just(savedTransaction));
+    // when
+    var result = mvc.perform(post("/api/v1/transactions/transfers")
+      .content(toJson(newTransaction))
+      .contentType(APPLICATION_JSON)
+    )
+    .andExpect(request().asyncStarted())
+    .andReturn();
+    // then
+    mvc.perform(asyncDispatch(result))
+    .andExpectAll(
+      status().isCreated(),
+      header().string(LOCATION, endsWith("/api/v1/transactions/transfers/" + returnedTransaction.id())),
+      content().json(toJson(returnedTransaction))
+    );
+  }
+
+  @Test
+  void whenFindAllTransactions_thenReturns200AndFindedTransactions() throws Exception {
+    // given
+    var findedTransactions = List.of(
+      new Transaction(1L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null),
+      new Transaction(2L, Money.of("10.00"), TransactionType.TRANSFER, 1L, 2L)
+    );
+    var returnedTransactions = List.of(
+      new TransactionResponse(1L, Money.of("10.00"), TransactionType.DEPOSIT, LocalDate.now(), 1L, null),
+      new TransactionResponse(2L, Money.of("10.00"), TransactionType.TRANSFER, LocalDate.now(), 1L, 2L)
+    );
+    // and
+    when(transactionService.findAllTransactions(anyLong(), anyInt(), anyInt()))
+      .thenReturn(Flux.fromIterable(findedTransactions));
+    // when
+    var result = mvc.perform(
+      get("/api/v1/transactions?account-id={account-id}&page={page}&size={size}", 1L, 0, 4)
+    )
+    .andExpect(request().asyncStarted())
+    .andReturn();
+    // then
+    mvc.perform(asyncDispatch(result))
+    .andExpectAll(
+      status().isOk(),
+      content().json(toJson(returnedTransactions))
+    );
+  }
+
+  @Test
+  void givenIdempotencyKey_whenCreateDepositTransaction_thenFallsBackToBlockingPipeline() throws Exception {
+    // given
+    var newTransaction = new TransactionRequest(Money.of("10.00"), 1L, null);
+    var storedTransaction = new Transaction(1L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null);
+    // and
+    when(idempotencyStore.execute(eq("3f1c9a52"), eq(TransactionType.DEPOSIT), any(Transaction.class), any()))
+      .thenReturn(new IdempotencyStore.Outcome(storedTransaction, false));
+    // when
+    mvc.perform(post("/api/v1/transactions/deposits")
+      .header(TransactionController.IDEMPOTENCY_KEY, "3f1c9a52")
+      .content(toJson(newTransaction))
+      .contentType(APPLICATION_JSON)
+    )
+    // then
+    .andExpect(status().isCreated());
+    verify(transactionService, never()).createDepositTransaction(any(Transaction.class));
+  }
+
+  @Test
+  void whenFindStatement_thenIsServedByBlockingPipeline() throws Exception {
+    // given
+    when(blockingTransactionService.findStatement(1L, StatementCursor.START, 2))
+      .thenReturn(new Statement(List.of(), null));
+    // when
+    mvc.perform(
+      get("/api/v1/transactions/statement?account-id={account-id}&size={size}", 1L, 2)
+    )
+    // then
+    .andExpectAll(
+      status().isOk(),
+      content().json("[]")
+    );
+  }
+
+  @Test
+  void whenFindTransactionsAfterCursor_thenIsServedByBlockingPipeline() throws Exception {
+    // given
+    when(blockingTransactionService.findTransactionsAfter(1L, 0L, 2))
+      .thenReturn(new TransactionSlice(List.of(), null));
+    // when
+    mvc.perform(get("/api/v1/transactions?account-id={account-id}&size={size}", 1L, 2))
+    // then
+    .andExpect(status().isOk());
+    verify(transactionService, never()).findAllTransactions(anyLong(), anyInt(), anyInt());
+  }
+
+}
@@ -0,0 +1,191 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import io.github.augustoravazoli.bankapi.Money;
+import io.github.augustoravazoli.bankapi.account.InsufficientBalanceException;
+import io.github.augustoravazoli.bankapi.account.ReactiveAccountRepository;
+import io.github.augustoravazoli.bankapi.account.ReactiveLedger;
+import io.github.augustoravazoli.bankapi.account.Ledger.Posting;
+import io.github.augustoravazoli.bankapi.account.SelfTransferException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveTransactionServiceTest {
+
+  @Mock
+  private ReactiveTransactionRepository transactionRepository;
+
+  @Mock
+  private ReactiveAccountRepository accountRepository;
+
+  @Mock
+  private ReactiveLedger ledger;
+
+  @Mock
+  private TransactionalOperator transactionalOperator;
+
+  @InjectMocks
+  private ReactiveTransactionService transactionService;
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(transactionalOperator.transactional(any(Mono.class))).then(returnsFirstArg());
+    lenient().when(transactionRepository.save(any(Transaction.class)))
+      .then(invocation -> Mono.just(invocation.getArgument(0)));
+    lenient().when(ledger.post(any(Posting.class))).thenReturn(Mono.empty());
+  }
+
+  @Test
+  void whenCreateDepositTransaction_thenReturnsCreatedTransaction() {
+    // given
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, null);
+    // and
+    when(accountRepository.existsById(1L)).thenReturn(Mono.just(true));
+    // when
+    var savedTransaction = transactionService.createDepositTransaction(newTransaction).block();
+    // then
+    assertThat(savedTransaction).isEqualTo(newTransaction);
+    assertThat(savedTransaction.getType()).isEqualTo(TransactionType.DEPOSIT);
+    verify(ledger).post(new Posting(1L, null, 1L, Money.of("10.00")));
+    verify(ledger, never()).lockAvailableBalance(anyLong());
+  }
+
+  @Test
+  void givenNonexistentAccount_whenCreateDepositTransaction_thenThrowsInvalidAccountException() {
+    // given
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, null);
+    // and
+    when(accountRepository.existsById(1L)).thenReturn(Mono.just(false));
+    // then
+    assertThatThrownBy(() -> transactionService.createDepositTransaction(newTransaction).block())
+      .isInstanceOf(InvalidAccountException.class);
+    verify(transactionRepository, never()).save(any(Transaction.class));
+  }
+
+  @Test
+  void whenCreateWithdrawalTransaction_thenReturnsCreatedTransaction() {
+    // given
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, null);
+    // and
+    when(ledger.lockAvailableBalance(1L)).thenReturn(Mono.just(Money.of("10.00")));
+    // when
+    var savedTransaction = transactionService.createWithdrawalTransaction(newTransaction).block();
+    // then
+    assertThat(savedTransaction).isEqualTo(newTransaction);
+    assertThat(savedTransaction.getType()).isEqualTo(TransactionType.WITHDRAWAL);
+    verify(ledger).post(new Posting(1L, 1L, null, Money.of("10.00")));
+  }
+
+  @Test
+  void givenInsufficientBalance_whenCreateWithdrawalTransaction_thenThrowsInsufficientBalanceException() {
+    // given
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, null);
+    // and
+    when(ledger.lockAvailableBalance(1L)).thenReturn(Mono.just(Money.of("9.99")));
+    // then
+    assertThatThrownBy(() -> transactionService.createWithdrawalTransaction(newTransaction).block())
+      .isInstanceOf(InsufficientBalanceException.class);
+    verify(transactionRepository, never()).save(any(Transaction.class));
+  }
+
+  @Test
+  void givenNonexistentAccount_whenCreateWithdrawalTransaction_thenThrowsInvalidAccountException() {
+    // given
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, null);
+    // and
+    when(ledger.lockAvailableBalance(1L)).thenReturn(Mono.empty());
+    // then
+    assertThatThrownBy(() -> transactionService.createWithdrawalTransaction(newTransaction).block())
+      .isInstanceOf(InvalidAccountException.class);
+    verify(transactionRepository, never()).save(any(Transaction.class));
+  }
+
+  @Test
+  void whenCreateTransferTransaction_thenReturnsCreatedTransaction() {
+    // given
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, 2L);
+    // and
+    when(ledger.lockAvailableBalance(1L)).thenReturn(Mono.just(Money.of("10.00")));
+    when(accountRepository.existsById(2L)).thenReturn(Mono.just(true));
+    // when
+    var savedTransaction = transactionService.createTransferTransaction(newTransaction).block();
+    // then
+    assertThat(savedTransaction).isEqualTo(newTransaction);
+    assertThat(savedTransaction.getType()).isEqualTo(TransactionType.TRANSFER);
+    verify(ledger).post(new Posting(1L, 1L, 2L, Money.of("10.00")));
+    verify(ledger, never()).lockAvailableBalance(2L);
+  }
+
+  @Test
+  void givenNonexistentDestinationAccount_whenCreateTransferTransaction_thenThrowsInvalidAccountException() {
+    // given
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, 2L);
+    // and
+    when(ledger.lockAvailableBalance(1L)).thenReturn(Mono.just(Money.of("10.00")));
+    when(accountRepository.existsById(2L)).thenReturn(Mono.just(false));
+    // then
+    assertThatThrownBy(() -> transactionService.createTransferTransaction(newTransaction).block())
+      .isInstanceOf(InvalidAccountException.class);
+    verify(transactionRepository, never()).save(any(Transaction.class));
+  }
+
+  @Test
+  void givenInsufficientBalance_whenCreateTransferTransaction_thenThrowsInsufficientBalanceException() {
+    // given
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, 2L);
+    // and
+    when(ledger.lockAvailableBalance(1L)).thenReturn(Mono.just(Money.of("9.99")));
+    when(accountRepository.existsById(2L)).thenReturn(Mono.just(true));
+    // then
+    assertThatThrownBy(() -> transactionService.createTransferTransaction(newTransaction).block())
+      .isInstanceOf(InsufficientBalanceException.class);
+    verify(transactionRepository, never()).save(any(Transaction.class));
+    verify(ledger, never()).post(any(Posting.class));
+  }
+
+  @Test
+  void givenSameAccount_whenCreateTransferTransaction_thenThrowsSelfTransferException() {
+    // given
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, 1L);
+    // then
+    assertThatThrownBy(() -> transactionService.createTransferTransaction(newTransaction).block())
+      .isInstanceOf(SelfTransferException.class);
+    verify(ledger, never()).lockAvailableBalance(anyLong());
+  }
+
+  @Test
+  void whenFindAllTransactions_thenReturnsFindedTransactions() {
+    // given
+    var transactions = List.of(
+      new Transaction(1L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null),
+      new Transaction(2L, Money.of("10.00"), TransactionType.WITHDRAWAL, 1L, null),
+      new Transaction(3L, Money.of("10.00"), TransactionType.TRANSFER, 1L, 2L)
+    );
+    // and
+    when(transactionRepository.findAllByOriginAccountId(anyLong(), any(Pageable.class)))
+      .thenReturn(Flux.fromIterable(transactions));
+    // when
+    var findedTransactions = transactionService.findAllTransactions(1L, 0, 4).collectList().block();
+    // then
+    assertThat(findedTransactions).isEqualTo(transactions);
+  }
+
+}
@@ -0,0 +1,55 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import io.github.augustoravazoli.bankapi.Money;
+
+class StatementCursorCodecTest {
+
+  private final StatementCursorCodec codec = new StatementCursorCodec("0123456789abcdef0123456789abcdef");
+
+  @Test
+  void whenEncodeAndDecode_thenReturnsSameCursor() {
+    // given
+    var cursor = new StatementCursor(502569412725833729L, Money.of("-60.25"));
+    // when
+    var encoded = codec.encode(1L, cursor);
+    // then
+    assertThat(codec.decode(1L, encoded)).isEqualTo(cursor);
+  }
+
+  @Test
+  void givenCursorOfAnotherAccount_whenDecode_thenThrowsInvalidCursorException() {
+    // given
+    var encoded = codec.encode(2L, new StatementCursor(3L, Money.of("60.00")));
+    // then
+    assertThatThrownBy(() -> codec.decode(1L, encoded))
+      .isInstanceOf(InvalidCursorException.class);
+  }
+
+  @Test
+  void givenCursorSignedWithAnotherSecret_whenDecode_thenThrowsInvalidCursorException() {
+    // given
+    var encoded = new StatementCursorCodec("fedcba9876543210fedcba9876543210")
+      .encode(1L, new StatementCursor(3L, Money.of("60.00")));
+    // then
+    assertThatThrownBy(() -> codec.decode(1L, encoded))
+      .isInstanceOf(InvalidCursorException.class);
+  }
+
+  @Test
+  void givenMalformedCursor_whenDecode_thenThrowsInvalidCursorException() {
+    assertThatThrownBy(() -> codec.decode(1L, "bm90LWEtY3Vyc29y"))
+      .isInstanceOf(InvalidCursorException.class);
+    assertThatThrownBy(() -> codec.decode(1L, "%%%"))
+      .isInstanceOf(InvalidCursorException.class);
+  }
+
+  @Test
+  void givenShortSecret_whenCreateCodec_thenThrowsIllegalArgumentException() {
+    assertThatThrownBy(() -> new StatementCursorCodec("statement-cursor-secret"))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+}
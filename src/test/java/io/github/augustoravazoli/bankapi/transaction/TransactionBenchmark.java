@@ -0,0 +1,81 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.augustoravazoli.bankapi.Money;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TransactionBenchmark {
+
+  private static final Money AMOUNT = Money.of("12.34");
+
+  @State(Scope.Benchmark)
+  public static class Responses {
+
+    @Param({"10", "1000"})
+    private int size;
+
+    // configured like the application's, dates as ISO strings
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private List<TransactionResponse> responses;
+
+    @Setup
+    public void setUp() {
+      var transactionMapper = new TransactionMapperImpl();
+      responses = LongStream.range(0, size)
+        .mapToObj(id -> transactionMapper.toResponse(
+          new Transaction(id, AMOUNT, TransactionType.TRANSFER, 1L, 2L)
+        ))
+        .toList();
+    }
+
+  }
+
+  private final TransactionMapper transactionMapper = new TransactionMapperImpl();
+
+  private TransactionRequest request;
+  private Transaction transaction;
+
+  @Setup
+  public void setUp() {
+    request = new TransactionRequest(AMOUNT, 1L, 2L);
+    transaction = new Transaction(1L, AMOUNT, TransactionType.TRANSFER, 1L, 2L);
+  }
+
+  @Benchmark
+  public Transaction toEntity() {
+    return transactionMapper.toEntity(request);
+  }
+
+  @Benchmark
+  public TransactionResponse toResponse() {
+    return transactionMapper.toResponse(transaction);
+  }
+
+  @Benchmark
+  public byte[] serializeResponses(Responses responses) throws JsonProcessingException {
+    return responses.mapper.writeValueAsBytes(responses.responses);
+  }
+
+}
@@ -1,48 +1,77 @@
 package io.github.augustoravazoli.bankapi.transaction;
 
-import java.math.BigDecimal;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.Base64;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.containsString;
+import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.restdocs.headers.RequestHeadersSnippet;
+import org.springframework.restdocs.headers.ResponseHeadersSnippet;
 import org.springframework.restdocs.payload.RequestFieldsSnippet;
 import org.springframework.restdocs.request.QueryParametersSnippet;
 
+import static org.springframework.restdocs.headers.HeaderDocumentation.headerWithName;
+import static org.springframework.restdocs.headers.HeaderDocumentation.requestHeaders;
+import static org.springframework.restdocs.headers.HeaderDocumentation.responseHeaders;
 import static org.springframework.restdocs.payload.PayloadDocumentation.requestFields;
 import static org.springframework.restdocs.request.RequestDocumentation.parameterWithName;
 import static org.springframework.restdocs.request.RequestDocumentation.queryParameters;
 import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
+import static org.springframework.http.HttpHeaders.LINK;
 import static org.springframework.http.HttpHeaders.LOCATION;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import io.github.augustoravazoli.bankapi.ControllerTestTemplate;
+import io.github.augustoravazoli.bankapi.Money;
 
-@Import(TransactionMapperImpl.class)
+@Import({ TransactionMapperImpl.class, StatementCursorCodec.class })
 @WebMvcTest(TransactionController.class)
 class TransactionControllerTest extends ControllerTestTemplate {
 
   @MockBean
   private TransactionService transactionService;
 
+  @MockBean
+  private TransactionExporter transactionExporter;
+
+  @MockBean
+  private IdempotencyStore idempotencyStore;
+
+  @Autowired
+  private StatementCursorCodec statementCursorCodec;
+
   @Test
   void whenCreateDepositTransaction_thenReturns201AndCreatedTransaction() throws Exception {
     // given
-    var newTransaction = new TransactionRequest(BigDecimal.TEN, 1L, null);
-    var savedTransaction = new Transaction(1L, BigDecimal.TEN, TransactionType.DEPOSIT, 1L, null);
+    var newTransaction = new TransactionRequest(Money.of("10.00"), 1L, null);
+    var savedTransaction = new Transaction(1L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null);
     var returnedTransaction = new TransactionResponse(
-      1L, BigDecimal.TEN, TransactionType.DEPOSIT, LocalDate.now(), 1L, null
+      1L, Money.of("10.00"), TransactionType.DEPOSIT, LocalDate.now(), 1L, null
     );
     // and
     when(transactionService.createDepositTransaction(any(Transaction.class)))
@@ -64,10 +93,10 @@ class TransactionControllerTest extends ControllerTestTemplate {
   @Test
   void whenCreateWithdrawalTransaction_thenReturns201AndCreatedTransaction() throws Exception {
     // given
-    var newTransaction = new TransactionRequest(BigDecimal.TEN, 1L, null);
-    var savedTransaction = new Transaction(1L, BigDecimal.TEN, TransactionType.WITHDRAWAL, 1L, null);
+    var newTransaction = new TransactionRequest(Money.of("10.00"), 1L, null);
+    var savedTransaction = new Transaction(1L, Money.of("10.00"), TransactionType.WITHDRAWAL, 1L, null);
     var returnedTransaction = new TransactionResponse(
-      1L, BigDecimal.TEN, TransactionType.WITHDRAWAL, LocalDate.now(), 1L, null
+      1L, Money.of("10.00"), TransactionType.WITHDRAWAL, LocalDate.now(), 1L, null
     );
     // and
     when(transactionService.createWithdrawalTransaction(any(Transaction.class)))
@@ -89,10 +118,10 @@ class TransactionControllerTest extends ControllerTestTemplate {
   @Test
   void whenCreateTransferTransaction_thenReturns201AndCreatedTransaction() throws Exception {
     // given
-    var newTransaction = new TransactionRequest(BigDecimal.TEN, 1L, 2L);
-    var savedTransaction = new Transaction(1L, BigDecimal.TEN, TransactionType.TRANSFER, 1L, 2L);
+    var newTransaction = new TransactionRequest(Money.of("10.00"), 1L, 2L);
+    var savedTransaction = new Transaction(1L, Money.of("10.00"), TransactionType.TRANSFER, 1L, 2L);
     var returnedTransaction = new TransactionResponse(
-      1L, BigDecimal.TEN, TransactionType.TRANSFER, LocalDate.now(), 1L, 2L
+      1L, Money.of("10.00"), TransactionType.TRANSFER, LocalDate.now(), 1L, 2L
     );
     // and
     when(transactionService.createTransferTransaction(any(Transaction.class)))
@@ -111,18 +140,172 @@ class TransactionControllerTest extends ControllerTestTemplate {
     .andDo(document("transaction/create/transfer", transferTransactionSnippet()));
   }
 
+  @Test
+  void givenRetriedIdempotencyKey_whenCreateTransferTransaction_thenReturns201AndStoredTransaction() throws Exception {
+    // given
+    var newTransaction = new TransactionRequest(Money.of("10.00"), 1L, 2L);
+    var storedTransaction = new Transaction(1L, Money.of("10.00"), TransactionType.TRANSFER, 1L, 2L);
+    var returnedTransaction = new TransactionResponse(
+      1L, Money.of("10.00"), TransactionType.TRANSFER, LocalDate.now(), 1L, 2L
+    );
+    // and
+    when(idempotencyStore.execute(eq("3f1c9a52"), eq(TransactionType.TRANSFER), any(Transaction.class), any()))
+      .thenReturn(new IdempotencyStore.Outcome(storedTransaction, true));
+    // when
+    mvc.perform(post("/api/v1/transactions/transfers")
+      .header(TransactionController.IDEMPOTENCY_KEY, "3f1c9a52")
+      .content(toJson(newTransaction))
+      .contentType(APPLICATION_JSON)
+    )
+    // then
+    .andExpectAll(
+      status().isCreated(),
+      header().string(TransactionController.IDEMPOTENT_REPLAYED, "true"),
+      content().json(toJson(returnedTransaction))
+    )
+    .andDo(document("transaction/create/idempotent", idempotencyKeySnippet(), idempotentReplayedSnippet()));
+    verify(transactionService, never()).createTransferTransaction(any(Transaction.class));
+  }
+
+  @Test
+  void givenReusedIdempotencyKey_whenCreateDepositTransaction_thenReturns422() throws Exception {
+    // given
+    var newTransaction = new TransactionRequest(Money.of("1.00"), 1L, null);
+    // and
+    when(idempotencyStore.execute(eq("3f1c9a52"), eq(TransactionType.DEPOSIT), any(Transaction.class), any()))
+      .thenThrow(new IdempotencyKeyReusedException());
+    // when
+    mvc.perform(post("/api/v1/transactions/deposits")
+      .header(TransactionController.IDEMPOTENCY_KEY, "3f1c9a52")
+      .content(toJson(newTransaction))
+      .contentType(APPLICATION_JSON)
+    )
+    // then
+    .andExpect(status().isUnprocessableEntity());
+  }
+
+  @Test
+  void givenTooLongIdempotencyKey_whenCreateWithdrawalTransaction_thenReturns422() throws Exception {
+    // given
+    var newTransaction = new TransactionRequest(Money.of("1.00"), 1L, null);
+    // when
+    mvc.perform(post("/api/v1/transactions/withdrawals")
+      .header(TransactionController.IDEMPOTENCY_KEY, "k".repeat(256))
+      .content(toJson(newTransaction))
+      .contentType(APPLICATION_JSON)
+    )
+    // then
+    .andExpect(status().isUnprocessableEntity());
+    verify(idempotencyStore, never()).execute(any(), any(), any(), any());
+  }
+
+  @Test
+  void givenFractionalCentAmount_whenCreateDepositTransaction_thenReturns400() throws Exception {
+    // when
+    mvc.perform(post("/api/v1/transactions/deposits")
+      .content("{\"amount\":10.001,\"originAccountId\":1}")
+      .contentType(APPLICATION_JSON)
+    )
+    // then
+    .andExpect(status().isBadRequest());
+    verify(transactionService, never()).createDepositTransaction(any(Transaction.class));
+  }
+
+  @Test
+  void givenAmountAboveMax_whenCreateDepositTransaction_thenReturns422() throws Exception {
+    // when
+    mvc.perform(post("/api/v1/transactions/deposits")
+      .content("{\"amount\":1000000000.01,\"originAccountId\":1}")
+      .contentType(APPLICATION_JSON)
+    )
+    // then
+    .andExpect(status().isUnprocessableEntity());
+    verify(transactionService, never()).createDepositTransaction(any(Transaction.class));
+  }
+
+  @Test
+  void givenZeroAmount_whenCreateDepositTransaction_thenReturns422() throws Exception {
+    // when
+    mvc.perform(post("/api/v1/transactions/deposits")
+      .content("{\"amount\":0,\"originAccountId\":1}")
+      .contentType(APPLICATION_JSON)
+    )
+    // then
+    .andExpect(status().isUnprocessableEntity());
+    verify(transactionService, never()).createDepositTransaction(any(Transaction.class));
+  }
+
+  @Test
+  void whenCreateBatchTransaction_thenReturns200AndItemResults() throws Exception {
+    // given
+    var newBatch = new BatchTransactionRequest(BatchMode.BEST_EFFORT, List.of(
+      new BatchTransactionItem(TransactionType.DEPOSIT, Money.of("10.00"), 1L, null),
+      new BatchTransactionItem(TransactionType.TRANSFER, Money.of("10.00"), 1L, 1L)
+    ));
+    var result = new BatchResult(true, List.of(
+      BatchResult.Item.applied(0, new Transaction(1L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null)),
+      BatchResult.Item.failed(1, "self transfer not allowed")
+    ));
+    var returnedBatch = new BatchTransactionResponse(true, List.of(
+      new BatchTransactionResponse.Item(0, new TransactionResponse(
+        1L, Money.of("10.00"), TransactionType.DEPOSIT, LocalDate.now(), 1L, null
+      ), null),
+      new BatchTransactionResponse.Item(1, null, "self transfer not allowed")
+    ));
+    // and
+    when(transactionService.createBatchTransaction(anyList(), eq(BatchMode.BEST_EFFORT)))
+      .thenReturn(result);
+    // when
+    mvc.perform(post("/api/v1/transactions/batch")
+      .content(toJson(newBatch))
+      .contentType(APPLICATION_JSON)
+    )
+    // then
+    .andExpectAll(
+      status().isOk(),
+      content().json(toJson(returnedBatch))
+    )
+    .andDo(document("transaction/create/batch", batchTransactionSnippet()));
+  }
+
+  @Test
+  void givenRejectedBatch_whenCreateBatchTransaction_thenReturns422AndFailedItem() throws Exception {
+    // given
+    var newBatch = new BatchTransactionRequest(BatchMode.ALL_OR_NOTHING, List.of(
+      new BatchTransactionItem(TransactionType.WITHDRAWAL, Money.of("10.00"), 1L, null)
+    ));
+    var result = new BatchResult(false, List.of(BatchResult.Item.failed(0, "insufficient balance")));
+    var returnedBatch = new BatchTransactionResponse(false, List.of(
+      new BatchTransactionResponse.Item(0, null, "insufficient balance")
+    ));
+    // and
+    when(transactionService.createBatchTransaction(anyList(), eq(BatchMode.ALL_OR_NOTHING)))
+      .thenReturn(result);
+    // when
+    mvc.perform(post("/api/v1/transactions/batch")
+      .content(toJson(newBatch))
+      .contentType(APPLICATION_JSON)
+    )
+    // then
+    .andExpectAll(
+      status().isUnprocessableEntity(),
+      content().json(toJson(returnedBatch))
+    )
+    .andDo(document("transaction/create/batch/rejected"));
+  }
+
   @Test
   void whenFindAllTransactions_thenReturns200AndFindedTransactions() throws Exception {
     // given
     var findedTransactions = List.of(
-      new Transaction(1L, BigDecimal.TEN, TransactionType.DEPOSIT, 1L, null),
-      new Transaction(2L, BigDecimal.TEN, TransactionType.WITHDRAWAL, 1L, null),
-      new Transaction(3L, BigDecimal.TEN, TransactionType.TRANSFER, 1L, 2L)
+      new Transaction(1L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null),
+      new Transaction(2L, Money.of("10.00"), TransactionType.WITHDRAWAL, 1L, null),
+      new Transaction(3L, Money.of("10.00"), TransactionType.TRANSFER, 1L, 2L)
     );
     var returnedTransactions = List.of(
-      new TransactionResponse(1L, BigDecimal.TEN, TransactionType.DEPOSIT, LocalDate.now(), 1L, null),
-      new TransactionResponse(2L, BigDecimal.TEN, TransactionType.WITHDRAWAL, LocalDate.now(), 1L, null),
-      new TransactionResponse(3L, BigDecimal.TEN, TransactionType.TRANSFER, LocalDate.now(), 1L, 2L)
+      new TransactionResponse(1L, Money.of("10.00"), TransactionType.DEPOSIT, LocalDate.now(), 1L, null),
+      new TransactionResponse(2L, Money.of("10.00"), TransactionType.WITHDRAWAL, LocalDate.now(), 1L, null),
+      new TransactionResponse(3L, Money.of("10.00"), TransactionType.TRANSFER, LocalDate.now(), 1L, 2L)
     );
     // and
     when(transactionService.findAllTransactions(anyLong(), anyInt(), anyInt()))
@@ -139,6 +322,252 @@ class TransactionControllerTest extends ControllerTestTemplate {
     .andDo(document("transaction/find-all", findAllTransactionsSnippet()));
   }
 
+  @Test
+  void whenFindTransactionsAfter_thenReturns200AndNextLink() throws Exception {
+    // given
+    var findedTransactions = List.of(
+      new Transaction(2L, Money.of("10.00"), TransactionType.WITHDRAWAL, 1L, null),
+      new Transaction(3L, Money.of("10.00"), TransactionType.TRANSFER, 1L, 2L)
+    );
+    var returnedTransactions = List.of(
+      new TransactionResponse(2L, Money.of("10.00"), TransactionType.WITHDRAWAL, LocalDate.now(), 1L, null),
+      new TransactionResponse(3L, Money.of("10.00"), TransactionType.TRANSFER, LocalDate.now(), 1L, 2L)
+    );
+    var after = TransactionCursor.encode(1L);
+    var next = TransactionCursor.encode(3L);
+    // and
+    when(transactionService.findTransactionsAfter(1L, 1L, 2))
+      .thenReturn(new TransactionSlice(findedTransactions, 3L));
+    // when
+    mvc.perform(
+      get("/api/v1/transactions?account-id={account-id}&after={after}&size={size}", 1L, after, 2)
+    )
+    // then
+    .andExpectAll(
+      status().isOk(),
+      header().string(LINK, containsString("after=" + next + ">; rel=\"next\"")),
+      header().string(TransactionController.NEXT_CURSOR, next),
+      content().json(toJson(returnedTransactions))
+    )
+    .andDo(document("transaction/find-after", findTransactionsAfterSnippet(), nextLinkSnippet()));
+  }
+
+  @Test
+  void givenInvalidCursor_whenFindTransactionsAfter_thenReturns422() throws Exception {
+    // when
+    mvc.perform(
+      get("/api/v1/transactions?account-id={account-id}&after={after}&size={size}", 1L, "not-a-cursor", 2)
+    )
+    // then
+    .andExpect(status().isUnprocessableEntity());
+    verify(transactionService, never()).findTransactionsAfter(anyLong(), anyLong(), anyInt());
+  }
+
+  @Test
+  void givenSizeAboveMax_whenFindTransactionsAfter_thenReturns422() throws Exception {
+    // when
+    mvc.perform(
+      get("/api/v1/transactions?account-id={account-id}&size={size}", 1L, Integer.MAX_VALUE)
+    )
+    // then
+    .andExpect(status().isUnprocessableEntity());
+    verify(transactionService, never()).findTransactionsAfter(anyLong(), anyLong(), anyInt());
+  }
+
+  @Test
+  void whenExportTransactions_thenReturns200AndStreamsNdjson() throws Exception {
+    // given
+    var exported = "{\"id\":\"1\",\"amount\":10,\"type\":\"deposit\"}\n{\"id\":\"2\",\"amount\":5,\"type\":\"withdrawal\"}\n";
+    // and
+    doAnswer(invocation -> {
+      invocation.getArgument(2, OutputStream.class).write(exported.getBytes());
+      return null;
+    }).when(transactionExporter).export(eq(1L), eq(ExportFormat.NDJSON), any());
+    // when
+    var result = mvc.perform(get("/api/v1/transactions/export?account-id={account-id}", 1L))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+    // then
+    mvc.perform(asyncDispatch(result))
+      .andExpectAll(
+        status().isOk(),
+        header().string("Content-Type", "application/x-ndjson"),
+        content().string(exported)
+      );
+  }
+
+  @Test
+  void whenExportTransactions_thenUsesExportTimeout() throws Exception {
+    // when
+    var result = mvc.perform(get("/api/v1/transactions/export?account-id={account-id}", 1L))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+    // then
+    assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofHours(1).toMillis());
+    mvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+  }
+
+  @Test
+  void givenExportsAtTheLimit_whenExportTransactions_thenReturns429() throws Exception {
+    // given
+    var release = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      release.await();
+      return null;
+    }).when(transactionExporter).export(eq(1L), eq(ExportFormat.NDJSON), any());
+    // and
+    var running = mvc.perform(get("/api/v1/transactions/export?account-id={account-id}", 1L))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+    // when
+    mvc.perform(get("/api/v1/transactions/export?account-id={account-id}", 2L))
+    // then
+    .andExpect(status().isTooManyRequests());
+    release.countDown();
+    mvc.perform(asyncDispatch(running)).andExpect(status().isOk());
+  }
+
+  @Test
+  void whenExportTransactionsAsCsv_thenReturns200AndStreamsCsv() throws Exception {
+    // given
+    var exported = "id,amount,type,date,originAccountId,destinationAccountId\n"
+      + "1,10,deposit," + LocalDate.now() + ",1,\n"
+      + "2,5,transfer," + LocalDate.now() + ",1,2\n";
+    // and
+    doAnswer(invocation -> {
+      invocation.getArgument(2, OutputStream.class).write(exported.getBytes());
+      return null;
+    }).when(transactionExporter).export(eq(1L), eq(ExportFormat.CSV), any());
+    // when
+    var result = mvc.perform(
+      get("/api/v1/transactions/export?account-id={account-id}&format={format}", 1L, "CSV")
+    )
+    .andExpect(request().asyncStarted())
+    .andReturn();
+    // then
+    mvc.perform(asyncDispatch(result))
+      .andExpectAll(
+        status().isOk(),
+        header().string("Content-Type", "text/csv"),
+        content().string(exported)
+      )
+      .andDo(document("transaction/export", exportTransactionsSnippet()));
+  }
+
+  @Test
+  void givenUnknownFormat_whenExportTransactions_thenReturns400() throws Exception {
+    // when
+    mvc.perform(
+      get("/api/v1/transactions/export?account-id={account-id}&format={format}", 1L, "XML")
+    )
+    // then
+    .andExpect(status().isBadRequest());
+    verify(transactionExporter, never()).export(anyLong(), any(), any());
+  }
+
+  @Test
+  void whenFindStatement_thenReturns200AndStatementEntries() throws Exception {
+    // given
+    var entries = List.of(
+      new StatementEntry(2L, TransactionType.DEPOSIT, Money.of("100.00"), Money.of("100.00"), LocalDate.now(), 1L, null),
+      new StatementEntry(3L, TransactionType.TRANSFER, Money.of("-40.00"), Money.of("60.00"), LocalDate.now(), 1L, 2L)
+    );
+    var returnedEntries = List.of(
+      new StatementEntryResponse(2L, TransactionType.DEPOSIT, Money.of("100.00"), Money.of("100.00"), LocalDate.now(), 1L, null),
+      new StatementEntryResponse(3L, TransactionType.TRANSFER, Money.of("-40.00"), Money.of("60.00"), LocalDate.now(), 1L, 2L)
+    );
+    var next = new StatementCursor(3L, Money.of("60.00"));
+    // and
+    when(transactionService.findStatement(1L, StatementCursor.START, 2))
+      .thenReturn(new Statement(entries, next));
+    // when
+    mvc.perform(
+      get("/api/v1/transactions/statement?account-id={account-id}&size={size}", 1L, 2)
+    )
+    // then
+    .andExpectAll(
+      status().isOk(),
+      header().string(LINK, containsString("after=" + statementCursorCodec.encode(1L, next) + ">; rel=\"next\"")),
+      header().string(TransactionController.NEXT_CURSOR, statementCursorCodec.encode(1L, next)),
+      content().json(toJson(returnedEntries))
+    )
+    .andDo(document("transaction/statement", findStatementSnippet(), nextLinkSnippet()));
+  }
+
+  @Test
+  void givenCursor_whenFindStatement_thenContinuesFromCursorBalance() throws Exception {
+    // given
+    var after = new StatementCursor(3L, Money.of("60.00"));
+    // and
+    when(transactionService.findStatement(1L, after, 2))
+      .thenReturn(new Statement(List.of(), null));
+    // when
+    mvc.perform(
+      get("/api/v1/transactions/statement?account-id={account-id}&after={after}&size={size}", 1L, statementCursorCodec.encode(1L, after), 2)
+    )
+    // then
+    .andExpectAll(
+      status().isOk(),
+      header().doesNotExist(LINK),
+      content().json("[]")
+    );
+  }
+
+  @Test
+  void givenInvalidCursor_whenFindStatement_thenReturns422() throws Exception {
+    // when
+    mvc.perform(
+      get("/api/v1/transactions/statement?account-id={account-id}&after={after}&size={size}", 1L, "bm90LWEtY3Vyc29y", 2)
+    )
+    // then
+    .andExpect(status().isUnprocessableEntity());
+    verify(transactionService, never()).findStatement(anyLong(), any(), anyInt());
+  }
+
+  @Test
+  void givenCursorWithForgedBalance_whenFindStatement_thenReturns422() throws Exception {
+    // given
+    var cursor = statementCursorCodec.encode(1L, new StatementCursor(3L, Money.of("60.00")));
+    var forged = new StatementCursorCodec("another-secret-another-secret-another")
+      .encode(1L, new StatementCursor(3L, Money.of("1000000.00")));
+    // and
+    var bytes = Base64.getUrlDecoder().decode(cursor);
+    var forgedBytes = Base64.getUrlDecoder().decode(forged);
+    System.arraycopy(forgedBytes, 0, bytes, 0, 3 * Long.BYTES);
+    // when
+    mvc.perform(
+      get("/api/v1/transactions/statement?account-id={account-id}&after={after}&size={size}",
+        1L, Base64.getUrlEncoder().withoutPadding().encodeToString(bytes), 2)
+    )
+    // then
+    .andExpect(status().isUnprocessableEntity());
+    verify(transactionService, never()).findStatement(anyLong(), any(), anyInt());
+  }
+
+  @Test
+  void givenCursorOfAnotherAccount_whenFindStatement_thenReturns422() throws Exception {
+    // given
+    var cursor = statementCursorCodec.encode(2L, new StatementCursor(3L, Money.of("60.00")));
+    // when
+    mvc.perform(
+      get("/api/v1/transactions/statement?account-id={account-id}&after={after}&size={size}", 1L, cursor, 2)
+    )
+    // then
+    .andExpect(status().isUnprocessableEntity());
+    verify(transactionService, never()).findStatement(anyLong(), any(), anyInt());
+  }
+
+  @Test
+  void givenSizeAboveMax_whenFindStatement_thenReturns422() throws Exception {
+    // when
+    mvc.perform(
+      get("/api/v1/transactions/statement?account-id={account-id}&size={size}", 1L, Integer.MAX_VALUE)
+    )
+    // then
+    .andExpect(status().isUnprocessableEntity());
+    verify(transactionService, never()).findStatement(anyLong(), any(), anyInt());
+  }
+
   private RequestFieldsSnippet depositAndWithdrawTransactionSnippet() {
     var fields = new ConstrainedFields(TransactionRequest.class);
     return requestFields(
@@ -157,6 +586,66 @@ class TransactionControllerTest extends ControllerTestTemplate {
     );
   }
 
+  private RequestFieldsSnippet batchTransactionSnippet() {
+    var batchFields = new ConstrainedFields(BatchTransactionRequest.class);
+    var itemFields = new ConstrainedFields(BatchTransactionItem.class);
+    return requestFields(
+      batchFields.path("mode").description("`ALL_OR_NOTHING` or `BEST_EFFORT`"),
+      batchFields.path("items").description("Transactions to apply, in order"),
+      itemFields.nestedPath("items[].", "type").description("`DEPOSIT`, `WITHDRAWAL` or `TRANSFER`"),
+      itemFields.nestedPath("items[].", "amount").description("Transaction's amount"),
+      itemFields.nestedPath("items[].", "originAccountId").description("Transaction's origin account id"),
+      itemFields.nestedPath("items[].", "destinationAccountId").optional()
+        .description("Transaction's destination account id, only on transfers")
+    );
+  }
+
+  private QueryParametersSnippet findTransactionsAfterSnippet() {
+    return queryParameters(
+      parameterWithName("account-id").description("The id of the account associated with this transaction"),
+      parameterWithName("after").optional()
+        .description("Cursor returned by the previous request, omit it to start from the oldest transaction"),
+      parameterWithName("size").description("Entries per page, up to " + TransactionController.MAX_PAGE_SIZE)
+    );
+  }
+
+  private QueryParametersSnippet exportTransactionsSnippet() {
+    return queryParameters(
+      parameterWithName("account-id").description("The id of the account associated with this transaction"),
+      parameterWithName("format").optional().description("`NDJSON`, the default, or `CSV`")
+    );
+  }
+
+  private QueryParametersSnippet findStatementSnippet() {
+    return queryParameters(
+      parameterWithName("account-id").description("The id of the account whose statement is retrieved"),
+      parameterWithName("after").optional()
+        .description("Cursor returned by the previous request, omit it to start from the account's first transaction"),
+      parameterWithName("size").description("Entries per page, up to " + TransactionController.MAX_PAGE_SIZE)
+    );
+  }
+
+  private RequestHeadersSnippet idempotencyKeySnippet() {
+    return requestHeaders(
+      headerWithName(TransactionController.IDEMPOTENCY_KEY)
+        .description("Client chosen key, up to 255 characters, a retry with the same key is applied only once")
+    );
+  }
+
+  private ResponseHeadersSnippet idempotentReplayedSnippet() {
+    return responseHeaders(
+      headerWithName(TransactionController.IDEMPOTENT_REPLAYED)
+        .description("Present when the key was already used and the stored transaction is returned")
+    );
+  }
+
+  private ResponseHeadersSnippet nextLinkSnippet() {
+    return responseHeaders(
+      headerWithName(LINK).description("Link to the next page, absent on the last one"),
+      headerWithName(TransactionController.NEXT_CURSOR).description("Cursor of the next page, absent on the last one")
+    );
+  }
+
   private QueryParametersSnippet findAllTransactionsSnippet() {
     return queryParameters(
       parameterWithName("account-id").description("The id of the account associated with this transaction"),
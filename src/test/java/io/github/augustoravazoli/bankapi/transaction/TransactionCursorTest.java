@@ -0,0 +1,28 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionCursorTest {
+
+  @Test
+  void whenEncodeAndDecode_thenReturnsSameId() {
+    // given
+    var transactionId = 502569412725833729L;
+    // when
+    var cursor = TransactionCursor.encode(transactionId);
+    // then
+    assertThat(cursor).doesNotContain(String.valueOf(transactionId));
+    assertThat(TransactionCursor.decode(cursor)).isEqualTo(transactionId);
+  }
+
+  @Test
+  void givenMalformedCursor_whenDecode_thenThrowsInvalidCursorException() {
+    assertThatThrownBy(() -> TransactionCursor.decode("not-a-cursor"))
+      .isInstanceOf(InvalidCursorException.class);
+    assertThatThrownBy(() -> TransactionCursor.decode("%%%"))
+      .isInstanceOf(InvalidCursorException.class);
+  }
+
+}
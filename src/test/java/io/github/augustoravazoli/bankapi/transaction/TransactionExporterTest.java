@@ -0,0 +1,94 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Answers.RETURNS_SELF;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.times;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import static com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import io.github.augustoravazoli.bankapi.Money;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExporterTest {
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock(answer = RETURNS_SELF)
+  private TypedQuery<Transaction> query;
+
+  private TransactionExporter transactionExporter;
+
+  @BeforeEach
+  void setUp() {
+    transactionExporter = new TransactionExporter(
+      entityManager,
+      transactionManager,
+      new TransactionMapperImpl(),
+      Jackson2ObjectMapperBuilder.json().featuresToDisable(WRITE_DATES_AS_TIMESTAMPS).build(),
+      500
+    );
+    when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    when(entityManager.createQuery(anyString(), eq(Transaction.class))).thenReturn(query);
+  }
+
+  @Test
+  void whenExportAsNdjson_thenWritesOneJsonObjectPerLineAndDetachesRows() throws Exception {
+    // given
+    var transactions = new Transaction[] {
+      new Transaction(1L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null),
+      new Transaction(2L, Money.of("1.00"), TransactionType.TRANSFER, 1L, 2L)
+    };
+    var out = new ByteArrayOutputStream();
+    // and
+    when(query.getResultStream()).thenReturn(Stream.of(transactions));
+    // when
+    transactionExporter.export(1L, ExportFormat.NDJSON, out);
+    // then
+    assertThat(out.toString(UTF_8).lines()).containsExactly(
+      "{\"id\":\"1\",\"amount\":10.00,\"type\":\"deposit\",\"date\":\"" + LocalDate.now() + "\",\"originAccountId\":\"1\"}",
+      "{\"id\":\"2\",\"amount\":1.00,\"type\":\"transfer\",\"date\":\"" + LocalDate.now() + "\",\"originAccountId\":\"1\",\"destinationAccountId\":\"2\"}"
+    );
+    verify(query, times(1)).setHint("org.hibernate.fetchSize", 500);
+    verify(entityManager, times(1)).detach(transactions[0]);
+    verify(entityManager, times(1)).detach(transactions[1]);
+  }
+
+  @Test
+  void whenExportAsCsv_thenWritesHeaderAndOneRowPerTransaction() throws Exception {
+    // given
+    var out = new ByteArrayOutputStream();
+    // and
+    when(query.getResultStream()).thenReturn(Stream.of(
+      new Transaction(1L, Money.of("10.50"), TransactionType.WITHDRAWAL, 1L, null)
+    ));
+    // when
+    transactionExporter.export(1L, ExportFormat.CSV, out);
+    // then
+    assertThat(out.toString(UTF_8).lines()).containsExactly(
+      "id,amount,type,date,originAccountId,destinationAccountId",
+      "1,10.50,withdrawal," + LocalDate.now() + ",1,"
+    );
+  }
+
+}
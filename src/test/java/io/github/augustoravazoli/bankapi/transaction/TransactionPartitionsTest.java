@@ -0,0 +1,199 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+import io.github.augustoravazoli.bankapi.Money;
+import io.github.augustoravazoli.bankapi.account.InsufficientBalanceException;
+
+class TransactionPartitionsTest {
+
+  private final List<List<Transaction>> groups = Collections.synchronizedList(new ArrayList<>());
+  private final List<String> committers = Collections.synchronizedList(new ArrayList<>());
+
+  @Test
+  void givenFullGroup_whenSubmit_thenCommitsItWithoutWaitingForTheDelay() {
+    // given
+    var transactions = List.of(deposit(1L), deposit(1L), deposit(1L));
+    // when
+    try (var partitions = new TransactionPartitions(properties(1, 3, Duration.ofMinutes(1)), this::applyAll)) {
+      var results = transactions.stream().map(partitions::submit).toList();
+      // then
+      assertThat(results).extracting(result -> result.join()).isEqualTo(transactions);
+    }
+    assertThat(groups).containsExactly(transactions);
+  }
+
+  @Test
+  void givenPendingOperations_whenDelayPasses_thenCommitsPartialGroup() {
+    // given
+    var transaction = deposit(1L);
+    // when
+    try (var partitions = new TransactionPartitions(properties(1, 100, Duration.ofMillis(5)), this::applyAll)) {
+      // then
+      assertThat(partitions.submit(transaction).join()).isEqualTo(transaction);
+    }
+    assertThat(groups).containsExactly(List.of(transaction));
+  }
+
+  @Test
+  void givenSameAccount_whenSubmit_thenCommitsOnTheSamePartition() {
+    // when
+    try (var partitions = new TransactionPartitions(properties(4, 1, Duration.ZERO), this::applyAll)) {
+      for (int i = 0; i < 10; i++) {
+        partitions.submit(deposit(7L)).join();
+      }
+    }
+    // then
+    assertThat(committers).hasSize(10).containsOnly(committers.get(0));
+  }
+
+  @Test
+  void givenRejectedTransaction_whenCommit_thenFailsOnlyThatOperation() {
+    // given
+    var applied = deposit(1L);
+    var rejected = deposit(1L);
+    var failure = new InsufficientBalanceException();
+    // when
+    try (var partitions = new TransactionPartitions(properties(1, 2, Duration.ofMinutes(1)), group -> {
+      var failures = new ArrayList<ResponseStatusException>();
+      group.forEach(transaction -> failures.add(transaction == rejected ? failure : null));
+      return failures;
+    })) {
+      var appliedResult = partitions.submit(applied);
+      var rejectedResult = partitions.submit(rejected);
+      // then
+      assertThat(appliedResult.join()).isEqualTo(applied);
+      assertThatThrownBy(rejectedResult::join)
+        .isInstanceOf(CompletionException.class)
+        .hasCause(failure);
+    }
+  }
+
+  @Test
+  void givenFailingCommit_whenCommit_thenFailsTheWholeGroup() {
+    // given
+    var failure = new IllegalStateException("connection lost");
+    // when
+    try (var partitions = new TransactionPartitions(properties(1, 2, Duration.ofMinutes(1)), group -> {
+      throw failure;
+    })) {
+      var results = List.of(partitions.submit(deposit(1L)), partitions.submit(deposit(1L)));
+      // then
+      results.forEach(result -> assertThatThrownBy(result::join).hasCause(failure));
+    }
+  }
+
+  @Test
+  void givenErrorOnCommit_whenCommit_thenFailsTheGroupAndKeepsThePartitionRunning() {
+    // given
+    var failure = new StackOverflowError();
+    var failing = deposit(1L);
+    var next = deposit(1L);
+    // when
+    try (var partitions = new TransactionPartitions(properties(1, 1, Duration.ZERO), group -> {
+      if (group.contains(failing)) {
+        throw failure;
+      }
+      return applyAll(group);
+    })) {
+      // then
+      assertThatThrownBy(partitions.submit(failing)::join).hasCause(failure);
+      assertThat(partitions.submit(next).join()).isEqualTo(next);
+    }
+  }
+
+  @Test
+  void givenSlowCommit_whenCommitTimeoutPasses_thenFailsWithTimeout() throws InterruptedException {
+    // given
+    var committing = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    // when
+    try (var partitions = new TransactionPartitions(properties(1, 1, Duration.ZERO, Duration.ofMillis(50)), group -> {
+      committing.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      return applyAll(group);
+    })) {
+      var result = partitions.submit(deposit(1L));
+      committing.await();
+      // then
+      assertThatThrownBy(result::join).hasCauseInstanceOf(TimeoutException.class);
+      release.countDown();
+    }
+  }
+
+  @Test
+  void givenOperationTimedOutWhileQueued_whenItsTurnComes_thenDropsIt() throws InterruptedException {
+    // given
+    var committing = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var partitions = new TransactionPartitions(properties(1, 1, Duration.ZERO, Duration.ofMillis(50)), group -> {
+      committing.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      return applyAll(group);
+    });
+    var inFlight = deposit(1L);
+    partitions.submit(inFlight);
+    committing.await();
+    var queued = partitions.submit(deposit(1L));
+    assertThatThrownBy(queued::join).hasCauseInstanceOf(TimeoutException.class);
+    // when
+    release.countDown();
+    partitions.close();
+    // then
+    assertThat(groups).containsExactly(List.of(inFlight));
+  }
+
+  @Test
+  void whenClose_thenCommitsQueuedOperationsAndRejectsNewOnes() {
+    // given
+    var partitions = new TransactionPartitions(properties(1, 100, Duration.ofMinutes(1)), this::applyAll);
+    var queued = partitions.submit(deposit(1L));
+    // when
+    partitions.close();
+    // then
+    assertThat(queued).isCompleted();
+    assertThat(groups).hasSize(1);
+    assertThatThrownBy(partitions.submit(deposit(1L))::join).hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  private List<ResponseStatusException> applyAll(List<Transaction> group) {
+    groups.add(group);
+    committers.add(Thread.currentThread().getName());
+    return Collections.nCopies(group.size(), null);
+  }
+
+  private static TransactionPartitionsProperties properties(int count, int maxGroupSize, Duration maxDelay) {
+    return properties(count, maxGroupSize, maxDelay, Duration.ofSeconds(30));
+  }
+
+  private static TransactionPartitionsProperties properties(
+    int count,
+    int maxGroupSize,
+    Duration maxDelay,
+    Duration commitTimeout
+  ) {
+    return new TransactionPartitionsProperties(count, maxGroupSize, maxDelay, commitTimeout);
+  }
+
+  private static Transaction deposit(long accountId) {
+    return new Transaction(null, Money.of("1.00"), TransactionType.DEPOSIT, accountId, null);
+  }
+
+}
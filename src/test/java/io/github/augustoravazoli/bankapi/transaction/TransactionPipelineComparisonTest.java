@@ -0,0 +1,163 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import io.github.augustoravazoli.bankapi.Application;
+import io.github.augustoravazoli.bankapi.Money;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Tag("benchmark")
+class TransactionPipelineComparisonTest {
+
+  private static final int ACCOUNTS = 100;
+  private static final int WARMUP_REQUESTS = 2_000;
+  private static final int REQUESTS = 10_000;
+  private static final int CONCURRENCY = 512;
+
+  private static record Result(String pipeline, int failures, Duration elapsed, long[] latencies) {
+
+    double throughput() {
+      return latencies.length / (elapsed.toNanos() / 1e9);
+    }
+
+    double percentile(double percentile) {
+      var index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+      return latencies[Math.max(index, 0)] / 1e6;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+        "%-16s %10.0f %10.2f %10.2f %10.2f %10d",
+        pipeline, throughput(), percentile(50), percentile(99), percentile(99.9), failures
+      );
+    }
+
+  }
+
+  @TempDir
+  private Path tempDir;
+
+  @Test
+  void compareMvcJpaWithReactiveR2dbcPipeline() throws IOException {
+    var mvc = run("mvc+jpa", false);
+    var reactive = run("reactive+r2dbc", true);
+    var report = String.join("\n",
+      String.format(
+        "%d requests, %d concurrent, %d accounts, embedded H2",
+        REQUESTS, CONCURRENCY, ACCOUNTS
+      ),
+      String.format(
+        "%-16s %10s %10s %10s %10s %10s",
+        "pipeline", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "failures"
+      ),
+      mvc.toString(),
+      reactive.toString()
+    );
+    var reportFile = Path.of("target", "benchmark", "transaction-pipeline.txt");
+    Files.createDirectories(reportFile.getParent());
+    Files.writeString(reportFile, report + "\n");
+    assertThat(mvc.failures()).isZero();
+    assertThat(reactive.failures()).isZero();
+  }
+
+  private Result run(String pipeline, boolean reactive) {
+    var database = pipeline.replaceAll("\\W", "");
+    var context = new SpringApplicationBuilder(Application.class).run(
+      "--server.port=0",
+      "--management.server.port=0",
+      "--logging.level.root=warn",
+      "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+      "--spring.datasource.username=sa",
+      "--spring.datasource.password=",
+      "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+      "--spring.r2dbc.url=r2dbc:h2:mem:///" + database + ";DB_CLOSE_DELAY=-1",
+      "--spring.r2dbc.username=sa",
+      "--spring.r2dbc.password=",
+      "--brazil-api.base-url=http://localhost:1",
+      "--brazil-api.snapshot-file=" + tempDir.resolve(database + ".json"),
+      "--bankapi.transactions.reactive=" + reactive
+    );
+    try (context) {
+      seedAccounts(new JdbcTemplate(context.getBean(DataSource.class)));
+      var port = context.getEnvironment().getRequiredProperty("local.server.port");
+      var client = createClient("http://localhost:" + port);
+      load(client, WARMUP_REQUESTS, new long[WARMUP_REQUESTS]);
+      var latencies = new long[REQUESTS];
+      var start = System.nanoTime();
+      var failures = load(client, REQUESTS, latencies);
+      var elapsed = Duration.ofNanos(System.nanoTime() - start);
+      Arrays.sort(latencies);
+      return new Result(pipeline, failures, elapsed, latencies);
+    }
+  }
+
+  private void seedAccounts(JdbcTemplate jdbc) {
+    jdbc.update(
+      "INSERT INTO customer (id, name, email, cpf, birth_date, version) "
+        + "VALUES (1, ?, ?, ?, DATE '1990-01-01', 0)",
+      "benchmark", "benchmark@example.com", "00000000000"
+    );
+    for (long id = 1; id <= ACCOUNTS; id++) {
+      jdbc.update(
+        "INSERT INTO account (id, bank, balance, created_at, account_id, version) "
+          + "VALUES (?, ?, ?, CURRENT_DATE, 1, 0)",
+        id, "benchmark", 100_000_000L
+      );
+    }
+  }
+
+  private WebClient createClient(String baseUrl) {
+    var connections = ConnectionProvider.builder("benchmark")
+      .maxConnections(CONCURRENCY)
+      .pendingAcquireMaxCount(-1)
+      .build();
+    return WebClient.builder()
+      .baseUrl(baseUrl)
+      .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+      .build();
+  }
+
+  private int load(WebClient client, int requests, long[] latencies) {
+    var failures = new AtomicInteger();
+    Flux.range(0, requests)
+      .flatMap(i -> {
+        var accountId = ThreadLocalRandom.current().nextLong(1, ACCOUNTS + 1);
+        var path = i % 2 == 0 ? "/api/v1/transactions/deposits" : "/api/v1/transactions/withdrawals";
+        var start = System.nanoTime();
+        return client.post()
+          .uri(path)
+          .contentType(APPLICATION_JSON)
+          .bodyValue(new TransactionRequest(Money.of("1.00"), accountId, null))
+          .retrieve()
+          .toBodilessEntity()
+          .then(Mono.fromRunnable(() -> latencies[i] = System.nanoTime() - start))
+          .onErrorResume(ex -> {
+            failures.incrementAndGet();
+            latencies[i] = System.nanoTime() - start;
+            return Mono.empty();
+          });
+      }, CONCURRENCY)
+      .blockLast();
+    return failures.get();
+  }
+
+}
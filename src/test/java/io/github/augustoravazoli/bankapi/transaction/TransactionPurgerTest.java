@@ -0,0 +1,73 @@
+package io.github.augustoravazoli.bankapi.transaction;
+
+import java.util.List;
+import java.util.stream.LongStream;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.transaction.support.TransactionOperations;
+import io.github.augustoravazoli.bankapi.account.AccountsRemovedEvent;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionPurgerTest {
+
+  @Mock
+  private TransactionRepository transactionRepository;
+
+  private TransactionPurger transactionPurger;
+
+  @BeforeEach
+  void setUp() {
+    transactionPurger = new TransactionPurger(
+      transactionRepository,
+      TransactionOperations.withoutTransaction(),
+      new TaskExecutorAdapter(new SyncTaskExecutor()),
+      2
+    );
+  }
+
+  @Test
+  void givenMoreTransactionsThanChunk_whenPurge_thenDeletesChunkByChunk() {
+    // given
+    when(transactionRepository.deleteOrphaned(List.of(1L), 2)).thenReturn(2, 1, 2, 0);
+    // when
+    var purged = transactionPurger.purge(List.of(1L));
+    // then
+    assertThat(purged).isEqualTo(5);
+    verify(transactionRepository, times(4)).deleteOrphaned(List.of(1L), 2);
+  }
+
+  @Test
+  void givenMoreAccountsThanChunk_whenPurge_thenSplitsAccountIds() {
+    // given
+    var accountIds = LongStream.rangeClosed(1, 5).boxed().toList();
+    // and
+    when(transactionRepository.deleteOrphaned(anyList(), eq(2))).thenReturn(0);
+    // when
+    transactionPurger.purge(accountIds);
+    // then
+    verify(transactionRepository).deleteOrphaned(List.of(1L, 2L), 2);
+    verify(transactionRepository).deleteOrphaned(List.of(3L, 4L), 2);
+    verify(transactionRepository).deleteOrphaned(List.of(5L), 2);
+  }
+
+  @Test
+  void givenNoAccounts_whenAccountsRemoved_thenPurgesNothing() {
+    // when
+    transactionPurger.onAccountsRemoved(new AccountsRemovedEvent(List.of()));
+    // then
+    verify(transactionRepository, never()).deleteOrphaned(anyList(), eq(2));
+  }
+
+}
@@ -1,45 +1,93 @@
 package io.github.augustoravazoli.bankapi.transaction;
 
-import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
-import org.mockito.InjectMocks;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.Mock;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.times;
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DeadlockLoserDataAccessException;
 import org.springframework.data.domain.Pageable;
-import io.github.augustoravazoli.bankapi.account.Account;
+import org.springframework.transaction.support.TransactionOperations;
+import io.github.augustoravazoli.bankapi.Money;
+import io.github.augustoravazoli.bankapi.RetryExecutor;
+import io.github.augustoravazoli.bankapi.account.AccountLockManager;
 import io.github.augustoravazoli.bankapi.account.AccountRepository;
+import io.github.augustoravazoli.bankapi.account.InsufficientBalanceException;
+import io.github.augustoravazoli.bankapi.account.Ledger;
+import io.github.augustoravazoli.bankapi.account.Ledger.Posting;
+import io.github.augustoravazoli.bankapi.account.SelfTransferException;
 
 @ExtendWith(MockitoExtension.class)
 class TransactionServiceTest {
 
+  private static record Row(
+    Long getId,
+    TransactionType getType,
+    long getAmount,
+    LocalDate getDate,
+    Long getOriginAccountId,
+    Long getDestinationAccountId
+  ) implements StatementRow {}
+
   @Mock
   private TransactionRepository transactionRepository;
 
   @Mock
   private AccountRepository accountRepository;
 
-  @InjectMocks
+  @Mock
+  private Ledger ledger;
+
+  private AccountLockManager lockManager;
+
   private TransactionService transactionService;
 
+  @BeforeEach
+  void setUp() {
+    lockManager = new AccountLockManager(16);
+    transactionService = new TransactionService(
+      transactionRepository,
+      accountRepository,
+      lockManager,
+      ledger,
+      TransactionOperations.withoutTransaction(),
+      new RetryExecutor(3, Duration.ZERO, Duration.ZERO),
+      new TransactionPartitionsProperties(2, 16, Duration.ZERO, Duration.ofSeconds(30))
+    );
+  }
+
+  @AfterEach
+  void tearDown() {
+    transactionService.destroy();
+  }
+
   @Test
-  void whenCreateDepositTransaction_thenReturnsCreatedTransaction() {
+  void whenCreateDepositTransaction_thenReturnsCommittedTransactionAndPostsCreditWithoutLocking() {
     // given
-    var account = new Account(1L, "", null);
-    var newTransaction = new Transaction(1L, BigDecimal.TEN, null, 1L, null);
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, null);
     // and
-    when(accountRepository.findById(anyLong())).thenReturn(Optional.of(account));
-    when(transactionRepository.save(any(Transaction.class))).then(returnsFirstArg());
+    when(accountRepository.findExistingIds(Set.of(1L))).thenReturn(List.of(1L));
     // when
     var savedTransaction = transactionService.createDepositTransaction(newTransaction);
     // then
@@ -47,32 +95,67 @@ class TransactionServiceTest {
       .usingRecursiveComparison()
       .ignoringFields("type")
       .isEqualTo(newTransaction);
-    assertThat(account.getBalance()).isEqualTo(BigDecimal.TEN);
     assertThat(savedTransaction.getType()).isEqualTo(TransactionType.DEPOSIT);
+    verify(transactionRepository, times(1)).saveAll(List.of(newTransaction));
+    verify(ledger, times(1)).post(List.of(new Posting(1L, null, 1L, Money.of("10.00"))));
+    verify(ledger, times(1)).lockAvailableBalances(Set.of());
+  }
+
+  @Test
+  void givenLockedAccount_whenCreateDepositTransaction_thenDoesNotWaitForTheLock() {
+    // given
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, null);
+    // and
+    when(accountRepository.findExistingIds(Set.of(1L))).thenReturn(List.of(1L));
+    // when
+    try (var lock = lockManager.lock(1L)) {
+      var savedTransaction = assertTimeoutPreemptively(
+        Duration.ofSeconds(5),
+        () -> transactionService.createDepositTransaction(newTransaction)
+      );
+      // then
+      assertThat(savedTransaction.getType()).isEqualTo(TransactionType.DEPOSIT);
+    }
   }
 
   @Test
   void givenNonexistentAccount_whenCreateDepositTransaction_thenThrowsInvalidAccountException() {
     // given
-    var nonexistentAccount = Optional.<Account>empty();
-    var newTransaction = new Transaction(1L, BigDecimal.TEN, null, 1L, null);
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, null);
     // and
-    when(accountRepository.findById(anyLong())).thenReturn(nonexistentAccount);
+    when(accountRepository.findExistingIds(Set.of(1L))).thenReturn(List.of());
     // then
     assertThatThrownBy(() -> transactionService.createDepositTransaction(newTransaction))
       .isInstanceOf(InvalidAccountException.class);
-    verify(transactionRepository, never()).save(any(Transaction.class));
+    verify(transactionRepository, never()).saveAll(anyList());
+    verify(ledger, never()).post(anyList());
   }
 
   @Test
-  void whenCreateWithdrawalTransaction_thenReturnsCreatedTransaction() {
+  void givenStoredIdempotencyKey_whenCreateDepositTransaction_thenThrowsIdempotencyKeyUsedException() {
     // given
-    var account = new Account(1L, "", null);
-    var newTransaction = new Transaction(1L, BigDecimal.TEN, null, 1L, null);
+    var storedTransaction = new Transaction(1L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null);
+    var newTransaction = new Transaction(null, Money.of("10.00"), null, 1L, null);
+    newTransaction.setIdempotencyKey("3f1c9a52");
     // and
-    account.deposit(BigDecimal.TEN);
-    when(accountRepository.findById(anyLong())).thenReturn(Optional.of(account));
-    when(transactionRepository.save(any(Transaction.class))).then(returnsFirstArg());
+    when(accountRepository.findExistingIds(Set.of(1L))).thenReturn(List.of(1L));
+    when(transactionRepository.findAllByIdempotencyKeyIn(List.of("3f1c9a52")))
+      .thenReturn(List.of(withKey(storedTransaction, "3f1c9a52")));
+    // then
+    assertThatThrownBy(() -> transactionService.createDepositTransaction(newTransaction))
+      .isInstanceOf(IdempotencyKeyUsedException.class)
+      .extracting("storedTransaction")
+      .isSameAs(storedTransaction);
+    verify(transactionRepository, never()).saveAll(anyList());
+    verify(ledger, never()).post(anyList());
+  }
+
+  @Test
+  void whenCreateWithdrawalTransaction_thenReturnsCommittedTransactionAndPostsDebit() {
+    // given
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, null);
+    // and
+    when(ledger.lockAvailableBalances(Set.of(1L))).thenReturn(Map.of(1L, Money.of("10.00")));
     // when
     var savedTransaction = transactionService.createWithdrawalTransaction(newTransaction);
     // then
@@ -80,32 +163,43 @@ class TransactionServiceTest {
       .usingRecursiveComparison()
       .ignoringFields("type")
       .isEqualTo(newTransaction);
-    assertThat(account.getBalance()).isEqualTo(BigDecimal.ZERO);
     assertThat(savedTransaction.getType()).isEqualTo(TransactionType.WITHDRAWAL);
+    verify(transactionRepository, times(1)).saveAll(List.of(newTransaction));
+    verify(ledger, times(1)).post(List.of(new Posting(1L, 1L, null, Money.of("10.00"))));
   }
 
   @Test
   void givenNonexistentAccount_whenCreateWithdrawalTransaction_thenThrowsInvalidAccountException() {
     // given
-    var nonexistentAccount = Optional.<Account>empty();
-    var newTransaction = new Transaction(1L, BigDecimal.TEN, null, 1L, null);
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, null);
     // and
-    when(accountRepository.findById(anyLong())).thenReturn(nonexistentAccount);
+    when(ledger.lockAvailableBalances(anyCollection())).thenReturn(Map.of());
     // then
-    assertThatThrownBy(() -> transactionService.createDepositTransaction(newTransaction))
+    assertThatThrownBy(() -> transactionService.createWithdrawalTransaction(newTransaction))
       .isInstanceOf(InvalidAccountException.class);
-    verify(transactionRepository, never()).save(any(Transaction.class));
+    verify(transactionRepository, never()).saveAll(anyList());
   }
 
-  @Test @SuppressWarnings("unchecked")
-  void whenCreateTransferTransaction_thenReturnsCreatedTransaction() {
+  @Test
+  void givenInsufficientBalance_whenCreateWithdrawalTransaction_thenThrowsInsufficientBalanceException() {
     // given
-    var origin = new Account(1L, "", null);
-    var destination = new Account(2L, "", null);
-    var newTransaction = new Transaction(1L, BigDecimal.TEN, null, 1L, 2L);
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, null);
     // and
-    origin.deposit(BigDecimal.TEN);
-    when(accountRepository.findById(anyLong())).thenReturn(Optional.of(origin), Optional.of(destination));
+    when(ledger.lockAvailableBalances(anyCollection())).thenReturn(Map.of(1L, Money.of("1.00")));
+    // then
+    assertThatThrownBy(() -> transactionService.createWithdrawalTransaction(newTransaction))
+      .isInstanceOf(InsufficientBalanceException.class);
+    verify(transactionRepository, never()).saveAll(anyList());
+    verify(ledger, never()).post(anyList());
+  }
+
+  @Test
+  void whenCreateTransferTransaction_thenReturnsCreatedTransactionAndPostsBothSides() {
+    // given
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, 2L);
+    // and
+    when(ledger.lockAvailableBalance(1L)).thenReturn(Optional.of(Money.of("10.00")));
+    when(accountRepository.existsById(2L)).thenReturn(true);
     when(transactionRepository.save(any(Transaction.class))).then(returnsFirstArg());
     // when
     var savedTransaction = transactionService.createTransferTransaction(newTransaction);
@@ -114,47 +208,351 @@ class TransactionServiceTest {
       .usingRecursiveComparison()
       .ignoringFields("type")
       .isEqualTo(newTransaction);
-    assertThat(origin.getBalance()).isEqualTo(BigDecimal.ZERO);
-    assertThat(destination.getBalance()).isEqualTo(BigDecimal.TEN);
     assertThat(savedTransaction.getType()).isEqualTo(TransactionType.TRANSFER);
+    verify(ledger, times(1)).post(List.of(new Posting(1L, 1L, 2L, Money.of("10.00"))));
+    verify(ledger, never()).lockAvailableBalance(2L);
+  }
+
+  @Test
+  void givenStoredIdempotencyKey_whenCreateTransferTransaction_thenThrowsIdempotencyKeyUsedException() {
+    // given
+    var storedTransaction = new Transaction(1L, Money.of("10.00"), TransactionType.TRANSFER, 1L, 2L);
+    var newTransaction = new Transaction(null, Money.of("10.00"), null, 1L, 2L);
+    newTransaction.setIdempotencyKey("3f1c9a52");
+    // and
+    when(ledger.lockAvailableBalance(1L)).thenReturn(Optional.of(Money.ZERO));
+    when(transactionRepository.findByIdempotencyKey("3f1c9a52")).thenReturn(Optional.of(storedTransaction));
+    // then
+    assertThatThrownBy(() -> transactionService.createTransferTransaction(newTransaction))
+      .isInstanceOf(IdempotencyKeyUsedException.class);
+    verify(transactionRepository, never()).save(any(Transaction.class));
   }
 
   @Test
   void givenNonexistentOriginAccount_whenCreateTransferTransaction_thenThrowsInvalidAccountException() {
     // given
-    var nonexistentOriginAccount = Optional.<Account>empty();
-    var newTransaction = new Transaction(1L, BigDecimal.TEN, null, 1L, 1L);
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, 1L);
     // and
-    when(accountRepository.findById(anyLong())).thenReturn(nonexistentOriginAccount);
+    when(accountRepository.existsById(anyLong())).thenReturn(false);
     // then
     assertThatThrownBy(() -> transactionService.createTransferTransaction(newTransaction))
       .isInstanceOf(InvalidAccountException.class);
     verify(transactionRepository, never()).save(any(Transaction.class));
   }
 
-  @Test @SuppressWarnings("unchecked")
+  @Test
   void givenNonexistentDestinationAccount_whenCreateTransferTransaction_thenThrowsInvalidAccountException() {
     // given
-    var originAccount = new Account(1L, "", null);
-    var nonexistentDestinationAccount = Optional.<Account>empty();
-    var newTransaction = new Transaction(1L, BigDecimal.TEN, null, 1L, 1L);
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, 2L);
     // and
-    when(accountRepository.findById(anyLong())).thenReturn(
-      Optional.of(originAccount), nonexistentDestinationAccount
-    );
+    when(ledger.lockAvailableBalance(1L)).thenReturn(Optional.of(Money.of("10.00")));
+    when(accountRepository.existsById(2L)).thenReturn(false);
     // then
     assertThatThrownBy(() -> transactionService.createTransferTransaction(newTransaction))
-      .isInstanceOf(InvalidAccountException.class);
+      .isInstanceOf(InvalidAccountException.class)
+      .hasMessageContaining("destination");
     verify(transactionRepository, never()).save(any(Transaction.class));
   }
 
+  @Test
+  void givenSameAccount_whenCreateTransferTransaction_thenThrowsSelfTransferException() {
+    // given
+    var newTransaction = new Transaction(1L, Money.of("10.00"), null, 1L, 1L);
+    // and
+    when(accountRepository.existsById(1L)).thenReturn(true);
+    // then
+    assertThatThrownBy(() -> transactionService.createTransferTransaction(newTransaction))
+      .isInstanceOf(SelfTransferException.class);
+    verify(ledger, never()).lockAvailableBalance(anyLong());
+  }
+
+  @Test
+  void whenCreateBatchTransaction_thenAppliesAllAndPostsTogether() {
+    // given
+    var newTransactions = List.of(
+      new Transaction(11L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null),
+      new Transaction(12L, Money.of("1.00"), TransactionType.TRANSFER, 1L, 2L),
+      new Transaction(13L, Money.of("1.00"), TransactionType.WITHDRAWAL, 2L, null)
+    );
+    // and
+    when(ledger.lockAvailableBalances(anyCollection()))
+      .thenReturn(Map.of(1L, Money.ZERO, 2L, Money.ZERO));
+    // when
+    var result = transactionService.createBatchTransaction(newTransactions, BatchMode.ALL_OR_NOTHING);
+    // then
+    assertThat(result.committed()).isTrue();
+    assertThat(result.items()).extracting(BatchResult.Item::transaction).isEqualTo(newTransactions);
+    verify(transactionRepository, times(1)).saveAll(newTransactions);
+    verify(ledger, times(1)).post(List.of(
+      new Posting(11L, null, 1L, Money.of("10.00")),
+      new Posting(12L, 1L, 2L, Money.of("1.00")),
+      new Posting(13L, 2L, null, Money.of("1.00"))
+    ));
+  }
+
+  @Test
+  void whenCreateBatchTransaction_thenLocksOnlyDebitedAccounts() {
+    // given
+    var newTransactions = List.of(
+      new Transaction(11L, Money.of("10.00"), TransactionType.DEPOSIT, 3L, null),
+      new Transaction(12L, Money.of("1.00"), TransactionType.TRANSFER, 1L, 2L)
+    );
+    // and
+    when(ledger.lockAvailableBalances(Set.of(1L))).thenReturn(Map.of(1L, Money.of("1.00")));
+    when(accountRepository.findExistingIds(Set.of(2L, 3L))).thenReturn(List.of(2L, 3L));
+    // when
+    var result = transactionService.createBatchTransaction(newTransactions, BatchMode.ALL_OR_NOTHING);
+    // then
+    assertThat(result.committed()).isTrue();
+    verify(ledger, times(1)).lockAvailableBalances(Set.of(1L));
+    verify(transactionRepository, times(1)).saveAll(newTransactions);
+  }
+
+  @Test
+  void givenFailingItem_whenCreateAllOrNothingBatchTransaction_thenSavesNothing() {
+    // given
+    var newTransactions = List.of(
+      new Transaction(11L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null),
+      new Transaction(12L, Money.of("10.00"), TransactionType.DEPOSIT, 3L, null)
+    );
+    // and
+    when(accountRepository.findExistingIds(Set.of(1L, 3L))).thenReturn(List.of(1L));
+    // when
+    var result = transactionService.createBatchTransaction(newTransactions, BatchMode.ALL_OR_NOTHING);
+    // then
+    assertThat(result.committed()).isFalse();
+    assertThat(result.items()).containsExactly(
+      BatchResult.Item.failed(1, "origin account doesn't exists")
+    );
+    verify(transactionRepository, never()).saveAll(anyList());
+    verify(ledger, never()).post(anyList());
+  }
+
+  @Test
+  void givenFailingItem_whenCreateBestEffortBatchTransaction_thenSavesTheOthers() {
+    // given
+    var newTransactions = List.of(
+      new Transaction(11L, Money.of("10.00"), TransactionType.WITHDRAWAL, 1L, null),
+      new Transaction(12L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null)
+    );
+    // and
+    when(ledger.lockAvailableBalances(anyCollection())).thenReturn(Map.of(1L, Money.ZERO));
+    // when
+    var result = transactionService.createBatchTransaction(newTransactions, BatchMode.BEST_EFFORT);
+    // then
+    assertThat(result.committed()).isTrue();
+    assertThat(result.items()).containsExactly(
+      BatchResult.Item.failed(0, "insufficient balance"),
+      BatchResult.Item.applied(1, newTransactions.get(1))
+    );
+    verify(transactionRepository, times(1)).saveAll(List.of(newTransactions.get(1)));
+    verify(ledger, times(1)).post(List.of(new Posting(12L, null, 1L, Money.of("10.00"))));
+  }
+
+  @Test
+  void givenMoreRows_whenFindTransactionsAfter_thenReturnsSliceWithNextCursor() {
+    // given
+    var transactions = List.of(
+      new Transaction(11L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null),
+      new Transaction(12L, Money.of("10.00"), TransactionType.WITHDRAWAL, 1L, null),
+      new Transaction(13L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null)
+    );
+    // and
+    when(transactionRepository.findAllByOriginAccountIdAndIdGreaterThan(eq(1L), eq(10L), any(Pageable.class)))
+      .thenReturn(transactions);
+    // when
+    var slice = transactionService.findTransactionsAfter(1L, 10L, 2);
+    // then
+    assertThat(slice.transactions()).isEqualTo(transactions.subList(0, 2));
+    assertThat(slice.lastTransactionId()).isEqualTo(12L);
+  }
+
+  @Test
+  void givenLastRows_whenFindTransactionsAfter_thenReturnsSliceWithoutNextCursor() {
+    // given
+    var transactions = List.of(
+      new Transaction(11L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null)
+    );
+    // and
+    when(transactionRepository.findAllByOriginAccountIdAndIdGreaterThan(eq(1L), eq(10L), any(Pageable.class)))
+      .thenReturn(transactions);
+    // when
+    var slice = transactionService.findTransactionsAfter(1L, 10L, 2);
+    // then
+    assertThat(slice.transactions()).isEqualTo(transactions);
+    assertThat(slice.hasNext()).isFalse();
+  }
+
+  @Test
+  void givenMoreRows_whenFindStatement_thenReturnsRunningBalanceAndNextCursor() {
+    // given
+    var rows = List.<StatementRow>of(
+      new Row(11L, TransactionType.DEPOSIT, 10000L, LocalDate.now(), 1L, null),
+      new Row(12L, TransactionType.TRANSFER, 3000L, LocalDate.now(), 2L, 1L),
+      new Row(13L, TransactionType.WITHDRAWAL, -5000L, LocalDate.now(), 1L, null)
+    );
+    // and
+    when(transactionRepository.findStatement(1L, 10L, 3)).thenReturn(rows);
+    // when
+    var statement = transactionService.findStatement(1L, new StatementCursor(10L, Money.of("20.00")), 2);
+    // then
+    assertThat(statement.entries())
+      .extracting(StatementEntry::balance)
+      .containsExactly(Money.of("120.00"), Money.of("150.00"));
+    assertThat(statement.next()).isEqualTo(new StatementCursor(12L, Money.of("150.00")));
+  }
+
+  @Test
+  void givenLastRows_whenFindStatement_thenReturnsStatementWithoutNextCursor() {
+    // given
+    var rows = List.<StatementRow>of(
+      new Row(11L, TransactionType.WITHDRAWAL, -500L, LocalDate.now(), 1L, null)
+    );
+    // and
+    when(transactionRepository.findStatement(1L, 0L, 3)).thenReturn(rows);
+    // when
+    var statement = transactionService.findStatement(1L, StatementCursor.START, 2);
+    // then
+    assertThat(statement.entries())
+      .extracting(StatementEntry::balance)
+      .containsExactly(Money.of("-5.00"));
+    assertThat(statement.hasNext()).isFalse();
+  }
+
+  @Test
+  void givenOverflowingCredit_whenCreateBestEffortBatchTransaction_thenRejectsOnlyThatItem() {
+    // given
+    var newTransactions = List.of(
+      new Transaction(11L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null),
+      new Transaction(12L, Money.of("10.00"), TransactionType.WITHDRAWAL, 1L, null)
+    );
+    // and
+    when(ledger.lockAvailableBalances(anyCollection()))
+      .thenReturn(Map.of(1L, Money.ofMinorUnits(Long.MAX_VALUE)));
+    // when
+    var result = transactionService.createBatchTransaction(newTransactions, BatchMode.BEST_EFFORT);
+    // then
+    assertThat(result.committed()).isTrue();
+    assertThat(result.items()).containsExactly(
+      BatchResult.Item.failed(0, "balance limit exceeded"),
+      BatchResult.Item.applied(1, newTransactions.get(1))
+    );
+    verify(transactionRepository, times(1)).saveAll(List.of(newTransactions.get(1)));
+  }
+
+  @Test
+  void givenRepeatedIdempotencyKey_whenCreateBatchTransaction_thenAppliesItOnce() {
+    // given
+    var first = withKey(new Transaction(11L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null), "3f1c9a52");
+    var retried = withKey(new Transaction(12L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null), "3f1c9a52");
+    // and
+    when(accountRepository.findExistingIds(Set.of(1L))).thenReturn(List.of(1L));
+    // when
+    var result = transactionService.createBatchTransaction(List.of(first, retried), BatchMode.BEST_EFFORT);
+    // then
+    assertThat(result.items()).containsExactly(
+      BatchResult.Item.applied(0, first),
+      BatchResult.Item.failed(1, "idempotency key already used")
+    );
+    verify(transactionRepository, times(1)).saveAll(List.of(first));
+  }
+
+  @Test
+  void givenKeyStoredConcurrently_whenCreateBatchTransaction_thenRetriesAndRejectsOnlyTheDuplicate() {
+    // given
+    var stored = withKey(new Transaction(1L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null), "3f1c9a52");
+    var duplicate = withKey(new Transaction(11L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null), "3f1c9a52");
+    var unrelated = withKey(new Transaction(12L, Money.of("5.00"), TransactionType.DEPOSIT, 1L, null), "7be204d1");
+    // and
+    when(accountRepository.findExistingIds(Set.of(1L))).thenReturn(List.of(1L));
+    when(transactionRepository.findAllByIdempotencyKeyIn(List.of("3f1c9a52", "7be204d1")))
+      .thenReturn(List.of())
+      .thenReturn(List.of(stored));
+    when(transactionRepository.saveAll(anyList()))
+      .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"))
+      .then(invocation -> {
+        List<Transaction> transactions = invocation.getArgument(0);
+        transactions.forEach(transaction -> transaction.setId(21L));
+        return transactions;
+      });
+    // when
+    var result = transactionService.createBatchTransaction(List.of(duplicate, unrelated), BatchMode.BEST_EFFORT);
+    // then
+    assertThat(result.committed()).isTrue();
+    assertThat(result.items()).containsExactly(
+      BatchResult.Item.failed(0, "idempotency key already used"),
+      BatchResult.Item.applied(1, unrelated)
+    );
+    verify(transactionRepository, times(1)).saveAll(List.of(unrelated));
+    verify(ledger, times(1)).post(anyList());
+    verify(ledger, times(1)).post(List.of(new Posting(21L, null, 1L, Money.of("5.00"))));
+  }
+
+  @Test
+  void givenDeadlock_whenCreateBatchTransaction_thenRetriesTheGroupWithNewIds() {
+    // given
+    var newTransaction = new Transaction(null, Money.of("10.00"), TransactionType.WITHDRAWAL, 1L, null);
+    // and
+    when(ledger.lockAvailableBalances(Set.of(1L))).thenReturn(Map.of(1L, Money.of("10.00")));
+    when(transactionRepository.saveAll(anyList()))
+      .then(invocation -> {
+        List<Transaction> transactions = invocation.getArgument(0);
+        transactions.forEach(transaction -> transaction.setId(21L));
+        throw new DeadlockLoserDataAccessException("deadlock detected", null);
+      })
+      .then(invocation -> {
+        List<Transaction> transactions = invocation.getArgument(0);
+        assertThat(transactions).allMatch(transaction -> transaction.getId() == null);
+        transactions.forEach(transaction -> transaction.setId(22L));
+        return transactions;
+      });
+    // when
+    var result = transactionService.createBatchTransaction(List.of(newTransaction), BatchMode.ALL_OR_NOTHING);
+    // then
+    assertThat(result.committed()).isTrue();
+    verify(transactionRepository, times(2)).saveAll(List.of(newTransaction));
+    verify(ledger, times(1)).post(List.of(new Posting(22L, 1L, null, Money.of("10.00"))));
+  }
+
+  @Test
+  void givenDeadlock_whenCreateTransferTransaction_thenRetriesTheTransfer() {
+    // given
+    var newTransaction = new Transaction(null, Money.of("10.00"), null, 1L, 2L);
+    // and
+    when(ledger.lockAvailableBalance(1L))
+      .thenThrow(new DeadlockLoserDataAccessException("deadlock detected", null))
+      .thenReturn(Optional.of(Money.of("10.00")));
+    when(accountRepository.existsById(2L)).thenReturn(true);
+    when(transactionRepository.save(any(Transaction.class))).then(returnsFirstArg());
+    // when
+    var savedTransaction = transactionService.createTransferTransaction(newTransaction);
+    // then
+    assertThat(savedTransaction.getType()).isEqualTo(TransactionType.TRANSFER);
+    verify(ledger, times(2)).lockAvailableBalance(1L);
+    verify(transactionRepository, times(1)).save(newTransaction);
+  }
+
+  @Test
+  void givenNoIdempotencyKeys_whenDataIntegrityViolation_thenDoesNotRetry() {
+    // given
+    var newTransaction = new Transaction(11L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null);
+    // and
+    when(accountRepository.findExistingIds(Set.of(1L))).thenReturn(List.of(1L));
+    when(transactionRepository.saveAll(anyList()))
+      .thenThrow(new DataIntegrityViolationException("value too long"));
+    // then
+    assertThatThrownBy(() -> transactionService.createBatchTransaction(List.of(newTransaction), BatchMode.BEST_EFFORT))
+      .isInstanceOf(DataIntegrityViolationException.class);
+    verify(transactionRepository, times(1)).saveAll(anyList());
+  }
+
   @Test
   void whenFindAllTransactions_thenReturnsFindedTransactions() {
     // given
     var transactions = List.of(
-      new Transaction(1L, BigDecimal.TEN, TransactionType.DEPOSIT, 1L, null),
-      new Transaction(2L, BigDecimal.TEN, TransactionType.WITHDRAWAL, 1L, null),
-      new Transaction(3L, BigDecimal.TEN, TransactionType.TRANSFER, 1L, 2L)
+      new Transaction(1L, Money.of("10.00"), TransactionType.DEPOSIT, 1L, null),
+      new Transaction(2L, Money.of("10.00"), TransactionType.WITHDRAWAL, 1L, null),
+      new Transaction(3L, Money.of("10.00"), TransactionType.TRANSFER, 1L, 2L)
     );
     // and
     when(transactionRepository.findAllByOriginAccountId(anyLong(), any(Pageable.class)))
@@ -165,4 +563,9 @@ class TransactionServiceTest {
     assertThat(findedTransactions).isEqualTo(transactions);
   }
 
+  private static Transaction withKey(Transaction transaction, String idempotencyKey) {
+    transaction.setIdempotencyKey(idempotencyKey);
+    return transaction;
+  }
+
 }